@@ -0,0 +1,16 @@
+package org.pm.analyticsservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+
+@Configuration
+public class ProtobufConfig {
+
+    // Writes protobuf messages for clients that send Accept: application/x-protobuf;
+    // JSON stays the default for everyone else
+    @Bean
+    public ProtobufHttpMessageConverter protobufHttpMessageConverter() {
+        return new ProtobufHttpMessageConverter();
+    }
+}
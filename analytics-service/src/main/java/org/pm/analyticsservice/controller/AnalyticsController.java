@@ -1,10 +1,21 @@
 package org.pm.analyticsservice.controller;
 
+import org.pm.analyticsservice.mapper.PatientEventMapper;
+import org.pm.analyticsservice.model.PartitionRevenue;
 import org.pm.analyticsservice.model.PatientEventRecord;
+import org.pm.analyticsservice.model.PatientEventSummary;
 import org.pm.analyticsservice.service.AnalyticsService;
+import org.pm.analyticsservice.service.ClusterQueryService;
+import org.pm.analyticsservice.service.RevenueService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 
@@ -14,32 +25,98 @@ import java.util.Map;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final ClusterQueryService clusterQueryService;
+    private final RevenueService revenueService;
 
-    public AnalyticsController(AnalyticsService analyticsService) {
+    public AnalyticsController(AnalyticsService analyticsService, ClusterQueryService clusterQueryService,
+                               RevenueService revenueService) {
         this.analyticsService = analyticsService;
+        this.clusterQueryService = clusterQueryService;
+        this.revenueService = revenueService;
     }
 
+    // Across all instances, as are the event lists and revenue; see ClusterQueryService
     @GetMapping("/summary")
-    public ResponseEntity<Map<String, Object>> getSummary() {
-        return ResponseEntity.ok(analyticsService.getAnalyticsSummary());
+    public ResponseEntity<PatientEventSummary> getSummary() {
+        return ResponseEntity.ok(clusterQueryService.getSummary());
     }
 
-    @GetMapping("/events")
-    public ResponseEntity<List<PatientEventRecord>> getAllEvents(
-            @RequestParam(defaultValue = "50") int limit) {
+    // One summary per partition this instance consumes, for the other instances' /summary
+    @GetMapping("/summary/partitions")
+    public ResponseEntity<List<PatientEventSummary>> getPartitionSummaries() {
+        return ResponseEntity.ok(analyticsService.getPartitionSummaries());
+    }
+
+    @GetMapping(value = "/events", produces = {MediaType.APPLICATION_JSON_VALUE, "application/x-protobuf"})
+    public ResponseEntity<?> getAllEvents(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return events(clusterQueryService.getRecentEvents(limit), accept);
+    }
+
+    @GetMapping(value = "/events/patient/{patientId}", produces = {MediaType.APPLICATION_JSON_VALUE, "application/x-protobuf"})
+    public ResponseEntity<?> getEventsByPatient(
+            @PathVariable String patientId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return events(clusterQueryService.getEventsByPatientId(patientId), accept);
+    }
+
+    @GetMapping(value = "/events/type/{eventType}", produces = {MediaType.APPLICATION_JSON_VALUE, "application/x-protobuf"})
+    public ResponseEntity<?> getEventsByType(
+            @PathVariable String eventType,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return events(clusterQueryService.getEventsByType(eventType), accept);
+    }
+
+    // Events of the partitions this instance consumes, for the other instances' event lists
+    @GetMapping("/events/partitions")
+    public ResponseEntity<List<PatientEventRecord>> getPartitionEvents(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String patientId,
+            @RequestParam(required = false) String eventType) {
+        if (patientId != null) {
+            return ResponseEntity.ok(analyticsService.getEventsByPatientId(patientId));
+        }
+        if (eventType != null) {
+            return ResponseEntity.ok(analyticsService.getEventsByType(eventType));
+        }
         return ResponseEntity.ok(analyticsService.getRecentEvents(limit));
     }
 
-    @GetMapping("/events/patient/{patientId}")
-    public ResponseEntity<List<PatientEventRecord>> getEventsByPatient(
-            @PathVariable String patientId) {
-        return ResponseEntity.ok(analyticsService.getEventsByPatientId(patientId));
+    @GetMapping("/revenue/summary")
+    public ResponseEntity<Map<String, Object>> getRevenueSummary() {
+        return ResponseEntity.ok(clusterQueryService.getRevenueSummary());
+    }
+
+    // Hourly buckets per payment partition this instance consumes, for the other instances' revenue queries
+    @GetMapping("/revenue/partitions")
+    public ResponseEntity<List<PartitionRevenue>> getPartitionRevenue(@RequestParam Instant from,
+                                                                      @RequestParam Instant to) {
+        return ResponseEntity.ok(revenueService.getPartitionRevenue(from, to));
     }
 
-    @GetMapping("/events/type/{eventType}")
-    public ResponseEntity<List<PatientEventRecord>> getEventsByType(
-            @PathVariable String eventType) {
-        return ResponseEntity.ok(analyticsService.getEventsByType(eventType));
+    /**
+     * Payment totals per currency and hour or day (UTC), from billing-service's
+     * payment events. Defaults to the last 24 hours by hour or the last 30
+     * days by day; amounts are in cents.
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<?> getRevenue(
+            @RequestParam(defaultValue = "hour") String interval,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        ChronoUnit unit = switch (interval) {
+            case "hour" -> ChronoUnit.HOURS;
+            case "day" -> ChronoUnit.DAYS;
+            default -> null;
+        };
+        if (unit == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "interval must be hour or day"));
+        }
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from
+                : end.minus(unit == ChronoUnit.HOURS ? Duration.ofHours(24) : Duration.ofDays(30));
+        return ResponseEntity.ok(clusterQueryService.getRevenue(start, end, unit));
     }
 
     @GetMapping("/health")
@@ -50,4 +127,16 @@ public class AnalyticsController {
                 "kafka", "CONNECTED"
         ));
     }
+
+    // Protobuf only when asked for explicitly; */* and browsers keep getting JSON
+    private static ResponseEntity<?> events(List<PatientEventRecord> events, String accept) {
+        boolean protobuf = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(ProtobufHttpMessageConverter.PROTOBUF::equalsTypeAndSubtype);
+        if (protobuf) {
+            return ResponseEntity.ok()
+                    .contentType(ProtobufHttpMessageConverter.PROTOBUF)
+                    .body(PatientEventMapper.toProto(events));
+        }
+        return ResponseEntity.ok(events);
+    }
 }
@@ -1,44 +1,148 @@
 package org.pm.analyticsservice.kafka;
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import billing.events.PaymentEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.pm.analyticsservice.service.AnalyticsService;
+import org.pm.analyticsservice.service.RevenueService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
 import patient.events.PatientEvent;
+import patient.events.PatientEventType;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
-public class KafkaConsumer {
+public class KafkaConsumer implements ConsumerSeekAware {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaConsumer.class);
+    private static final String PATIENT_TOPIC = "patient";
+    private static final String PAYMENT_TOPIC = "payment";
 
     private final AnalyticsService analyticsService;
+    private final RevenueService revenueService;
 
-    public KafkaConsumer(AnalyticsService analyticsService) {
+    public KafkaConsumer(AnalyticsService analyticsService, RevenueService revenueService) {
         this.analyticsService = analyticsService;
+        this.revenueService = revenueService;
+    }
+
+    // Patient and revenue state is per partition: a newly assigned partition
+    // resumes from its local snapshot, or is replayed from the start to
+    // rebuild it
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition assigned : assignments.keySet()) {
+            long offset;
+            if (PATIENT_TOPIC.equals(assigned.topic())) {
+                offset = analyticsService.assign(assigned.partition());
+            } else if (PAYMENT_TOPIC.equals(assigned.topic())) {
+                offset = revenueService.assign(assigned.partition());
+            } else {
+                continue;
+            }
+            if (offset > 0) {
+                callback.seek(assigned.topic(), assigned.partition(), offset);
+            } else {
+                callback.seekToBeginning(assigned.topic(), assigned.partition());
+            }
+            log.info("Assigned {} partition {}, reading from offset {}", assigned.topic(), assigned.partition(), offset);
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        for (TopicPartition revoked : partitions) {
+            if (PATIENT_TOPIC.equals(revoked.topic())) {
+                analyticsService.revoke(revoked.partition());
+            } else if (PAYMENT_TOPIC.equals(revoked.topic())) {
+                revenueService.revoke(revoked.partition());
+            } else {
+                continue;
+            }
+            log.info("Revoked {} partition {}", revoked.topic(), revoked.partition());
+        }
     }
 
-    @KafkaListener(topics = "patient", groupId = "analytics-service")
-    public void consumeEvent(byte[] event) {
+    @KafkaListener(topics = PATIENT_TOPIC, groupId = "analytics-service")
+    public void consumeEvent(ConsumerRecord<String, byte[]> record) {
         try {
-            PatientEvent patientEvent = PatientEvent.parseFrom(event);
+            PatientEvent patientEvent = PatientEvent.parseFrom(record.value());
+            UUID patientId = patientId(patientEvent);
+            PatientEventType eventType = eventType(patientEvent);
+            if (patientId == null || eventType == PatientEventType.PATIENT_EVENT_TYPE_UNSPECIFIED
+                    || eventType == PatientEventType.UNRECOGNIZED) {
+                log.warn("Skipping patient event without a known patient id and type: {}", patientEvent.getType());
+                return;
+            }
 
             // Record the event in analytics service
             analyticsService.recordEvent(
-                    patientEvent.getPatientId(),
-                    patientEvent.getName(),
-                    patientEvent.getEmail(),
-                    patientEvent.getEventType()
+                    record.partition(),
+                    record.offset(),
+                    record.timestamp(),
+                    patientId,
+                    patientEvent.hasName() ? patientEvent.getName() : null,
+                    patientEvent.hasEmail() ? patientEvent.getEmail() : null,
+                    eventType
             );
 
-            log.info("Received and recorded Patient Event: [PatientId={}, PatientName={}, EventType={}]",
-                    patientEvent.getPatientId(),
-                    patientEvent.getName(),
-                    patientEvent.getEventType());
+            log.info("Received and recorded Patient Event: [PatientId={}, EventType={}]",
+                    patientId,
+                    eventType);
 
         } catch (InvalidProtocolBufferException e) {
             log.error("Error deserializing event: {}", e.getMessage());
         }
     }
+
+    // Producers before patient_key sent only the text id; null if the
+    // event carries neither
+    static UUID patientId(PatientEvent event) {
+        if (event.getPatientKey().size() == 16) {
+            ByteBuffer key = event.getPatientKey().asReadOnlyByteBuffer();
+            return new UUID(key.getLong(), key.getLong());
+        }
+        try {
+            return UUID.fromString(event.getPatientId());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Producers before the enum sent only the event_type string
+    static PatientEventType eventType(PatientEvent event) {
+        if (event.getType() != PatientEventType.PATIENT_EVENT_TYPE_UNSPECIFIED) {
+            return event.getType();
+        }
+        return switch (event.getEventType()) {
+            case "PATIENT_CREATED" -> PatientEventType.PATIENT_CREATED;
+            case "PATIENT_DELETED" -> PatientEventType.PATIENT_DELETED;
+            default -> PatientEventType.PATIENT_EVENT_TYPE_UNSPECIFIED;
+        };
+    }
+
+    @KafkaListener(topics = PAYMENT_TOPIC, groupId = "analytics-service")
+    public void consumePaymentEvent(ConsumerRecord<String, byte[]> record) {
+        try {
+            PaymentEvent paymentEvent = PaymentEvent.parseFrom(record.value());
+
+            boolean counted = revenueService.record(record.partition(), record.offset(), paymentEvent);
+
+            log.info("Received Payment Event: [PaymentIntentId={}, EventType={}, Counted={}]",
+                    paymentEvent.getPaymentIntentId(),
+                    paymentEvent.getEventType(),
+                    counted);
+
+        } catch (InvalidProtocolBufferException e) {
+            log.error("Error deserializing payment event: {}", e.getMessage());
+        }
+    }
 }
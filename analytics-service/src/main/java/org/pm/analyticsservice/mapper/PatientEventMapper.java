@@ -0,0 +1,26 @@
+package org.pm.analyticsservice.mapper;
+
+import analytics.api.PatientEventListResponse;
+import analytics.api.PatientEventResponse;
+import org.pm.analyticsservice.model.PatientEventRecord;
+
+import java.time.ZoneId;
+import java.util.List;
+
+public class PatientEventMapper {
+
+    public static PatientEventListResponse toProto(List<PatientEventRecord> events) {
+        PatientEventListResponse.Builder builder = PatientEventListResponse.newBuilder();
+        for (PatientEventRecord event : events) {
+            builder.addEvents(PatientEventResponse.newBuilder()
+                    .setId(event.getId())
+                    .setPatientId(event.getPatientId())
+                    .setPatientName(event.getPatientName())
+                    .setPatientEmail(event.getPatientEmail())
+                    .setEventType(event.getEventType().name())
+                    .setTimestampMillis(event.getTimestamp()
+                            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,27 @@
+package org.pm.analyticsservice.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hourly revenue buckets built from one partition of the payment topic, as
+ * an instance reports them to the others. Payment events are keyed by
+ * patient, so partitions add up without double counting.
+ */
+public class PartitionRevenue {
+    private int partition;
+    private List<RevenueBucket> hours = new ArrayList<>();
+
+    public PartitionRevenue() {}
+
+    public PartitionRevenue(int partition, List<RevenueBucket> hours) {
+        this.partition = partition;
+        this.hours = hours;
+    }
+
+    public int getPartition() { return partition; }
+    public void setPartition(int partition) { this.partition = partition; }
+
+    public List<RevenueBucket> getHours() { return hours; }
+    public void setHours(List<RevenueBucket> hours) { this.hours = hours; }
+}
@@ -0,0 +1,10 @@
+package org.pm.analyticsservice.model;
+
+/**
+ * The latest name and email analytics knows for a patient; empty strings
+ * when it knows none.
+ */
+public record PatientDetails(String name, String email) {
+
+    public static final PatientDetails UNKNOWN = new PatientDetails("", "");
+}
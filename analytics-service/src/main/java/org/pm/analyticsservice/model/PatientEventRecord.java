@@ -1,5 +1,7 @@
 package org.pm.analyticsservice.model;
 
+import patient.events.PatientEventType;
+
 import java.time.LocalDateTime;
 
 public class PatientEventRecord {
@@ -7,13 +9,13 @@ public class PatientEventRecord {
     private String patientId;
     private String patientName;
     private String patientEmail;
-    private String eventType;
+    private PatientEventType eventType;
     private LocalDateTime timestamp;
 
     public PatientEventRecord() {}
 
     public PatientEventRecord(String id, String patientId, String patientName,
-                               String patientEmail, String eventType, LocalDateTime timestamp) {
+                               String patientEmail, PatientEventType eventType, LocalDateTime timestamp) {
         this.id = id;
         this.patientId = patientId;
         this.patientName = patientName;
@@ -34,8 +36,8 @@ public class PatientEventRecord {
     public String getPatientEmail() { return patientEmail; }
     public void setPatientEmail(String patientEmail) { this.patientEmail = patientEmail; }
 
-    public String getEventType() { return eventType; }
-    public void setEventType(String eventType) { this.eventType = eventType; }
+    public PatientEventType getEventType() { return eventType; }
+    public void setEventType(PatientEventType eventType) { this.eventType = eventType; }
 
     public LocalDateTime getTimestamp() { return timestamp; }
     public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
@@ -0,0 +1,68 @@
+package org.pm.analyticsservice.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Patient event counts over a set of partitions of the patient topic.
+ * Partitions hold disjoint sets of patients, so summaries of different
+ * partitions add up exactly, unique patients included.
+ */
+public class PatientEventSummary {
+    private List<Integer> partitions = new ArrayList<>();
+    private long totalEvents;
+    private Map<String, Long> eventsByType = new TreeMap<>();
+    private long uniquePatients;
+    private long eventsLastHour;
+    private long eventsLast24Hours;
+    private boolean complete = true;
+
+    public PatientEventSummary() {}
+
+    public static PatientEventSummary ofPartition(int partition, long totalEvents, Map<String, Long> eventsByType,
+                                                  long uniquePatients, long eventsLastHour, long eventsLast24Hours) {
+        PatientEventSummary summary = new PatientEventSummary();
+        summary.partitions.add(partition);
+        summary.totalEvents = totalEvents;
+        summary.eventsByType.putAll(eventsByType);
+        summary.uniquePatients = uniquePatients;
+        summary.eventsLastHour = eventsLastHour;
+        summary.eventsLast24Hours = eventsLast24Hours;
+        return summary;
+    }
+
+    // Folds in the summary of other partitions
+    public void add(PatientEventSummary other) {
+        partitions.addAll(other.partitions);
+        totalEvents += other.totalEvents;
+        other.eventsByType.forEach((type, count) -> eventsByType.merge(type, count, Long::sum));
+        uniquePatients += other.uniquePatients;
+        eventsLastHour += other.eventsLastHour;
+        eventsLast24Hours += other.eventsLast24Hours;
+        complete &= other.complete;
+    }
+
+    public List<Integer> getPartitions() { return partitions; }
+    public void setPartitions(List<Integer> partitions) { this.partitions = partitions; }
+
+    public long getTotalEvents() { return totalEvents; }
+    public void setTotalEvents(long totalEvents) { this.totalEvents = totalEvents; }
+
+    public Map<String, Long> getEventsByType() { return eventsByType; }
+    public void setEventsByType(Map<String, Long> eventsByType) { this.eventsByType = eventsByType; }
+
+    public long getUniquePatients() { return uniquePatients; }
+    public void setUniquePatients(long uniquePatients) { this.uniquePatients = uniquePatients; }
+
+    public long getEventsLastHour() { return eventsLastHour; }
+    public void setEventsLastHour(long eventsLastHour) { this.eventsLastHour = eventsLastHour; }
+
+    public long getEventsLast24Hours() { return eventsLast24Hours; }
+    public void setEventsLast24Hours(long eventsLast24Hours) { this.eventsLast24Hours = eventsLast24Hours; }
+
+    // False when an instance did not answer, so some partitions are missing
+    public boolean isComplete() { return complete; }
+    public void setComplete(boolean complete) { this.complete = complete; }
+}
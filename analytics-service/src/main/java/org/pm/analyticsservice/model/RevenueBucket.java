@@ -0,0 +1,79 @@
+package org.pm.analyticsservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.time.Instant;
+
+/**
+ * Payment totals for one currency over one time bucket. Amounts are in the
+ * currency's smallest unit (cents), as billing-service publishes them.
+ */
+public class RevenueBucket {
+    private final Instant bucketStart;
+    private final String currency;
+    private long createdCount;
+    private long createdAmount;
+    private long succeededCount;
+    private long succeededAmount;
+    private long canceledCount;
+    private long canceledAmount;
+
+    public RevenueBucket(Instant bucketStart, String currency) {
+        this.bucketStart = bucketStart;
+        this.currency = currency;
+    }
+
+    // Also how buckets are read back from another instance's JSON
+    @JsonCreator
+    public RevenueBucket(Instant bucketStart, String currency, long createdCount, long createdAmount,
+                         long succeededCount, long succeededAmount, long canceledCount, long canceledAmount) {
+        this(bucketStart, currency);
+        this.createdCount = createdCount;
+        this.createdAmount = createdAmount;
+        this.succeededCount = succeededCount;
+        this.succeededAmount = succeededAmount;
+        this.canceledCount = canceledCount;
+        this.canceledAmount = canceledAmount;
+    }
+
+    public void addCreated(long amount) {
+        createdCount++;
+        createdAmount += amount;
+    }
+
+    public void addSucceeded(long amount) {
+        succeededCount++;
+        succeededAmount += amount;
+    }
+
+    public void addCanceled(long amount) {
+        canceledCount++;
+        canceledAmount += amount;
+    }
+
+    // Folds another bucket's totals into this one, for coarser buckets
+    public void add(RevenueBucket other) {
+        createdCount += other.createdCount;
+        createdAmount += other.createdAmount;
+        succeededCount += other.succeededCount;
+        succeededAmount += other.succeededAmount;
+        canceledCount += other.canceledCount;
+        canceledAmount += other.canceledAmount;
+    }
+
+    public Instant getBucketStart() { return bucketStart; }
+
+    public String getCurrency() { return currency; }
+
+    public long getCreatedCount() { return createdCount; }
+
+    public long getCreatedAmount() { return createdAmount; }
+
+    public long getSucceededCount() { return succeededCount; }
+
+    public long getSucceededAmount() { return succeededAmount; }
+
+    public long getCanceledCount() { return canceledCount; }
+
+    public long getCanceledAmount() { return canceledAmount; }
+}
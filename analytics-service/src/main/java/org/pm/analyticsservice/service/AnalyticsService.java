@@ -1,99 +1,186 @@
 package org.pm.analyticsservice.service;
 
+import analytics.state.PartitionSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.pm.analyticsservice.model.PatientDetails;
 import org.pm.analyticsservice.model.PatientEventRecord;
+import org.pm.analyticsservice.model.PatientEventSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import patient.events.PatientEventType;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-
+import java.util.stream.Stream;
+
+/**
+ * Patient event analytics for the partitions of the patient topic this
+ * instance consumes. Each partition has its own {@link PartitionState},
+ * created or restored when Kafka assigns the partition and snapshotted
+ * and dropped when it is revoked; queries read across the local
+ * partitions, and {@link ClusterQueryService} adds the other instances'.
+ */
 @Service
 public class AnalyticsService {
 
-    // In-memory store for events (in production, use a database)
-    private final Deque<PatientEventRecord> eventStore = new ConcurrentLinkedDeque<>();
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+    private static final String TOPIC = "patient";
 
-    // Keep last 1000 events
-    private static final int MAX_EVENTS = 1000;
+    private final Map<Integer, PartitionState> partitions = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> savedOffsets = new ConcurrentHashMap<>();
+    private final PartitionStateStore store;
 
-    public void recordEvent(String patientId, String patientName, String patientEmail, String eventType) {
-        PatientEventRecord record = new PatientEventRecord(
-                UUID.randomUUID().toString(),
-                patientId,
-                patientName,
-                patientEmail,
-                eventType,
-                LocalDateTime.now()
-        );
+    public AnalyticsService(PartitionStateStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Takes over a partition, restoring its last local snapshot if there is
+     * one; returns the offset to resume reading from, 0 to replay it all.
+     */
+    public long assign(int partition) {
+        PartitionState state = partitions.computeIfAbsent(partition,
+                p -> store.load(TOPIC, p, PartitionSnapshot.parser())
+                        .map(PartitionState::fromSnapshot)
+                        .orElseGet(() -> new PartitionState(p)));
+        savedOffsets.putIfAbsent(partition, state.nextOffset());
+        return state.nextOffset();
+    }
 
-        eventStore.addFirst(record);
+    public void revoke(int partition) {
+        PartitionState state = partitions.remove(partition);
+        if (state != null) {
+            save(state);
+            savedOffsets.remove(partition);
+        }
+    }
 
-        // Trim if exceeds max
-        while (eventStore.size() > MAX_EVENTS) {
-            eventStore.removeLast();
+    /**
+     * Stores the event read at {@code offset} of {@code partition} and
+     * applies it to the partition's patient dimension. A null name or email
+     * means the event did not carry one. Returns false for a record the
+     * partition already includes, or one from a partition this instance
+     * does not hold: state only exists between assign and revoke, so a
+     * record delivered after a revoke cannot resurrect it.
+     */
+    public boolean recordEvent(int partition, long offset, long timestampMillis, UUID patientId,
+                               String patientName, String patientEmail, PatientEventType eventType) {
+        // Derived from the record's position, so a replayed event keeps its id
+        UUID id = UUID.nameUUIDFromBytes(("patient/" + partition + "/" + offset).getBytes(StandardCharsets.UTF_8));
+        PartitionState state = partitions.get(partition);
+        if (state == null) {
+            log.warn("Ignoring record at offset {} of unassigned partition {}", offset, partition);
+            return false;
         }
+        return state.apply(offset, new StoredEvent(id, patientId, eventType, timestampMillis),
+                patientName, patientEmail);
+    }
+
+    public Set<Integer> getPartitions() {
+        return new TreeSet<>(partitions.keySet());
     }
 
     public List<PatientEventRecord> getRecentEvents(int limit) {
-        return eventStore.stream()
+        return events(partitions.values().stream(), e -> true)
                 .limit(limit)
                 .collect(Collectors.toList());
     }
 
     public List<PatientEventRecord> getAllEvents() {
-        return new ArrayList<>(eventStore);
+        return events(partitions.values().stream(), e -> true)
+                .collect(Collectors.toList());
     }
 
-    public Map<String, Object> getAnalyticsSummary() {
-        Map<String, Object> summary = new HashMap<>();
+    // Summary of the local partitions
+    public PatientEventSummary getAnalyticsSummary() {
+        PatientEventSummary summary = new PatientEventSummary();
+        getPartitionSummaries().forEach(summary::add);
+        return summary;
+    }
 
-        List<PatientEventRecord> events = getAllEvents();
+    public List<PatientEventSummary> getPartitionSummaries() {
+        long now = System.currentTimeMillis();
+        return partitions.values().stream()
+                .sorted(Comparator.comparingInt(PartitionState::partition))
+                .map(state -> summarize(state, now))
+                .collect(Collectors.toList());
+    }
 
-        // Total events
-        summary.put("totalEvents", events.size());
+    public List<PatientEventRecord> getEventsByPatientId(String patientId) {
+        UUID id;
+        try {
+            id = UUID.fromString(patientId);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+        return events(partitions.values().stream(), e -> e.patientId().equals(id))
+                .collect(Collectors.toList());
+    }
 
-        // Events by type
-        Map<String, Long> eventsByType = events.stream()
-                .collect(Collectors.groupingBy(
-                        PatientEventRecord::getEventType,
-                        Collectors.counting()
-                ));
-        summary.put("eventsByType", eventsByType);
+    public List<PatientEventRecord> getEventsByType(String eventType) {
+        return events(partitions.values().stream(), e -> e.type().name().equals(eventType))
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.state.snapshot-interval:PT1M}")
+    @PreDestroy
+    public void snapshot() {
+        partitions.values().forEach(this::save);
+    }
+
+    private void save(PartitionState state) {
+        long offset = state.nextOffset();
+        if (!Objects.equals(savedOffsets.get(state.partition()), offset)) {
+            store.save(TOPIC, state.partition(), state.toSnapshot());
+            savedOffsets.put(state.partition(), offset);
+        }
+    }
+
+    private static PatientEventSummary summarize(PartitionState state, long now) {
+        List<StoredEvent> events = state.events();
 
-        // Unique patients
+        Map<String, Long> eventsByType = events.stream()
+                .collect(Collectors.groupingBy(e -> e.type().name(), TreeMap::new, Collectors.counting()));
         long uniquePatients = events.stream()
-                .map(PatientEventRecord::getPatientId)
+                .map(StoredEvent::patientId)
                 .distinct()
                 .count();
-        summary.put("uniquePatients", uniquePatients);
-
-        // Events in last hour
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
         long eventsLastHour = events.stream()
-                .filter(e -> e.getTimestamp().isAfter(oneHourAgo))
+                .filter(e -> e.timestampMillis() > now - 3_600_000L)
                 .count();
-        summary.put("eventsLastHour", eventsLastHour);
-
-        // Events in last 24 hours
-        LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
         long eventsLast24Hours = events.stream()
-                .filter(e -> e.getTimestamp().isAfter(oneDayAgo))
+                .filter(e -> e.timestampMillis() > now - 86_400_000L)
                 .count();
-        summary.put("eventsLast24Hours", eventsLast24Hours);
 
-        return summary;
+        return PatientEventSummary.ofPartition(state.partition(), events.size(), eventsByType,
+                uniquePatients, eventsLastHour, eventsLast24Hours);
     }
 
-    public List<PatientEventRecord> getEventsByPatientId(String patientId) {
-        return eventStore.stream()
-                .filter(e -> e.getPatientId().equals(patientId))
-                .collect(Collectors.toList());
+    // Newest first across partitions, with names joined in
+    private static Stream<PatientEventRecord> events(Stream<PartitionState> partitions,
+                                                     Predicate<StoredEvent> filter) {
+        return partitions
+                .flatMap(state -> state.events().stream().filter(filter).map(event -> toRecord(state, event)))
+                .sorted(Comparator.comparing(PatientEventRecord::getTimestamp).reversed());
     }
 
-    public List<PatientEventRecord> getEventsByType(String eventType) {
-        return eventStore.stream()
-                .filter(e -> e.getEventType().equals(eventType))
-                .collect(Collectors.toList());
+    private static PatientEventRecord toRecord(PartitionState state, StoredEvent event) {
+        PatientDetails details = state.patient(event.patientId());
+        return new PatientEventRecord(
+                event.id().toString(),
+                event.patientId().toString(),
+                details.name(),
+                details.email(),
+                event.type(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(event.timestampMillis()), ZoneId.systemDefault())
+        );
     }
 }
@@ -0,0 +1,241 @@
+package org.pm.analyticsservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.pm.analyticsservice.model.PartitionRevenue;
+import org.pm.analyticsservice.model.PatientEventRecord;
+import org.pm.analyticsservice.model.PatientEventSummary;
+import org.pm.analyticsservice.model.RevenueBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Answers queries over every partition by asking each analytics-service
+ * instance for what its partitions hold and merging that with the local
+ * partitions: patient event summaries and events, and revenue. Instances
+ * are found by resolving {@code analytics.cluster.peers}, a DNS name (or
+ * comma-separated names) with one address per instance, as Cloud Map
+ * service discovery provides. Without peers the answers cover this
+ * instance only.
+ */
+@Service
+public class ClusterQueryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterQueryService.class);
+    private static final ParameterizedTypeReference<List<PatientEventSummary>> SUMMARIES =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<PatientEventRecord>> EVENTS =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<PartitionRevenue>> REVENUE =
+            new ParameterizedTypeReference<>() {};
+
+    private final AnalyticsService analyticsService;
+    private final RevenueService revenueService;
+    private final List<String> peers;
+    private final int port;
+    private final RestClient restClient;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public ClusterQueryService(AnalyticsService analyticsService,
+                               RevenueService revenueService,
+                               @Value("${analytics.cluster.peers:}") String peers,
+                               @Value("${server.port:4002}") int port,
+                               @Value("${analytics.cluster.timeout:2s}") Duration timeout) {
+        this(analyticsService, revenueService, peers, port,
+                RestClient.builder().requestFactory(requestFactory(timeout)).build());
+    }
+
+    ClusterQueryService(AnalyticsService analyticsService, RevenueService revenueService, String peers, int port,
+                        RestClient restClient) {
+        this.analyticsService = analyticsService;
+        this.revenueService = revenueService;
+        this.peers = Arrays.stream(peers.split(",")).map(String::trim).filter(p -> !p.isEmpty()).toList();
+        this.port = port;
+        this.restClient = restClient;
+    }
+
+    /**
+     * Adds up the local partitions and those of every other instance that
+     * answers in time. A partition reported by two instances, as happens
+     * briefly during a rebalance, is counted once; if an instance does not
+     * answer, its partitions are missing and the summary is marked
+     * incomplete.
+     */
+    public PatientEventSummary getSummary() {
+        Gathered<PatientEventSummary> partitions = gather(analyticsService.getPartitionSummaries(),
+                PatientEventSummary::getPartitions, "/analytics/summary/partitions", Map.of(), SUMMARIES);
+
+        PatientEventSummary summary = new PatientEventSummary();
+        partitions.items().forEach(summary::add);
+        summary.setComplete(partitions.complete());
+        summary.getPartitions().sort(null);
+        return summary;
+    }
+
+    // Newest first, at most limit, from every instance
+    public List<PatientEventRecord> getRecentEvents(int limit) {
+        return events(analyticsService.getRecentEvents(limit), Map.of("limit", limit), limit);
+    }
+
+    public List<PatientEventRecord> getEventsByPatientId(String patientId) {
+        return events(analyticsService.getEventsByPatientId(patientId), Map.of("patientId", patientId),
+                Integer.MAX_VALUE);
+    }
+
+    public List<PatientEventRecord> getEventsByType(String eventType) {
+        return events(analyticsService.getEventsByType(eventType), Map.of("eventType", eventType),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Revenue per {@code unit} and currency over every partition of the
+     * payment topic, for buckets starting in [from, to); see
+     * {@link RevenueService#getRevenue(List, ChronoUnit)}. Partitions are
+     * counted once, as in {@link #getSummary()}.
+     */
+    public List<RevenueBucket> getRevenue(Instant from, Instant to, ChronoUnit unit) {
+        return revenueService.getRevenue(revenue(from.truncatedTo(unit), to).items(), unit);
+    }
+
+    // As RevenueService#getRevenueSummary, over every instance; complete is
+    // false when an instance did not answer
+    public Map<String, Object> getRevenueSummary() {
+        Instant nextHour = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+        Gathered<PartitionRevenue> partitions = revenue(revenueService.retainedFrom(), nextHour);
+        Map<String, Object> summary = revenueService.getRevenueSummary(partitions.items());
+        summary.put("partitions", partitions.items().stream().map(PartitionRevenue::getPartition).sorted().toList());
+        summary.put("complete", partitions.complete());
+        return summary;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static SimpleClientHttpRequestFactory requestFactory(Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        return requestFactory;
+    }
+
+    private Gathered<PartitionRevenue> revenue(Instant from, Instant to) {
+        return gather(revenueService.getPartitionRevenue(from, to), p -> List.of(p.getPartition()),
+                "/analytics/revenue/partitions", Map.of("from", from, "to", to), REVENUE);
+    }
+
+    // Events are identified by their record's position, so one seen from
+    // two instances mid-rebalance is listed once
+    private List<PatientEventRecord> events(List<PatientEventRecord> local, Map<String, ?> query, int limit) {
+        return gather(local, e -> List.of(e.getId()), "/analytics/events/partitions", query, EVENTS).items().stream()
+                .sorted(Comparator.comparing(PatientEventRecord::getTimestamp).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * The local items and those every other instance returns for
+     * {@code path}, asked in parallel. An item is kept only if none of its
+     * keys (partitions, or an event id) has been seen, local items first.
+     */
+    private <T> Gathered<T> gather(List<T> local, Function<T, Collection<?>> keys, String path,
+                                   Map<String, ?> query, ParameterizedTypeReference<List<T>> type) {
+        List<CompletableFuture<List<T>>> remote = remoteInstances().stream()
+                .map(address -> CompletableFuture.supplyAsync(() -> fetch(address, path, query, type), executor))
+                .toList();
+
+        List<T> items = new ArrayList<>();
+        Set<Object> seen = new HashSet<>();
+        boolean complete = true;
+        local.forEach(item -> add(items, item, keys, seen));
+        for (CompletableFuture<List<T>> instance : remote) {
+            List<T> answer = instance.join();
+            if (answer == null) {
+                complete = false;
+            } else {
+                answer.forEach(item -> add(items, item, keys, seen));
+            }
+        }
+        return new Gathered<>(items, complete);
+    }
+
+    private static <T> void add(List<T> items, T item, Function<T, Collection<?>> keys, Set<Object> seen) {
+        if (keys.apply(item).stream().allMatch(seen::add)) {
+            items.add(item);
+        }
+    }
+
+    // Null when the instance could not be asked
+    private <T> List<T> fetch(InetAddress address, String path, Map<String, ?> query,
+                              ParameterizedTypeReference<List<T>> type) {
+        UriComponentsBuilder uri = UriComponentsBuilder.newInstance()
+                .scheme("http").host(address.getHostAddress()).port(port).path(path);
+        // In name order, so the same question is always the same URL
+        new TreeMap<>(query).forEach((name, value) -> uri.queryParam(name, value));
+        try {
+            return restClient.get()
+                    .uri(uri.encode().build().toUri())
+                    .retrieve()
+                    .body(type);
+        } catch (RuntimeException e) {
+            log.warn("No answer from analytics instance {} for {}: {}", address.getHostAddress(), path, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<InetAddress> remoteInstances() {
+        List<InetAddress> instances = new ArrayList<>();
+        for (String peer : peers) {
+            try {
+                for (InetAddress address : InetAddress.getAllByName(peer)) {
+                    if (!isLocal(address)) {
+                        instances.add(address);
+                    }
+                }
+            } catch (UnknownHostException e) {
+                log.warn("Cannot resolve analytics peers {}: {}", peer, e.getMessage());
+            }
+        }
+        return instances;
+    }
+
+    private static boolean isLocal(InetAddress address) {
+        try {
+            return address.isLoopbackAddress() || address.isAnyLocalAddress()
+                    || NetworkInterface.getByInetAddress(address) != null;
+        } catch (SocketException e) {
+            return false;
+        }
+    }
+
+    private record Gathered<T>(List<T> items, boolean complete) {}
+}
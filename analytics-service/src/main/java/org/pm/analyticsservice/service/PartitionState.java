@@ -0,0 +1,120 @@
+package org.pm.analyticsservice.service;
+
+import analytics.state.PartitionSnapshot;
+import analytics.state.StoredPatient;
+import com.google.protobuf.ByteString;
+import org.pm.analyticsservice.model.PatientDetails;
+import patient.events.PatientEventType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Everything analytics derives from one partition of the patient topic.
+ * Events are keyed by patient, so each partition holds a disjoint set of
+ * patients and partitions can be summed without double counting. The
+ * state is a function of the partition's records up to
+ * {@link #nextOffset()}, so it can be rebuilt by replaying them.
+ */
+final class PartitionState {
+
+    // Keep the last 1000 events of each partition
+    static final int MAX_EVENTS = 1000;
+
+    private final int partition;
+    private final Deque<StoredEvent> events = new ArrayDeque<>();
+    private final PatientDimension patients = new PatientDimension();
+    private long nextOffset;
+
+    PartitionState(int partition) {
+        this.partition = partition;
+    }
+
+    int partition() {
+        return partition;
+    }
+
+    synchronized long nextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Applies the record at {@code offset}; returns false for a record the
+     * state already includes, as redelivered after a restart or rebalance.
+     */
+    synchronized boolean apply(long offset, StoredEvent event, String name, String email) {
+        if (offset < nextOffset) {
+            return false;
+        }
+        nextOffset = offset + 1;
+        if (event.type() == PatientEventType.PATIENT_DELETED) {
+            patients.remove(event.patientId());
+        } else {
+            patients.update(event.patientId(), name, email);
+        }
+        events.addFirst(event);
+        while (events.size() > MAX_EVENTS) {
+            events.removeLast();
+        }
+        return true;
+    }
+
+    // Newest first
+    synchronized List<StoredEvent> events() {
+        return new ArrayList<>(events);
+    }
+
+    synchronized PatientDetails patient(UUID patientId) {
+        return patients.get(patientId);
+    }
+
+    synchronized PartitionSnapshot toSnapshot() {
+        PartitionSnapshot.Builder snapshot = PartitionSnapshot.newBuilder()
+                .setPartition(partition)
+                .setNextOffset(nextOffset);
+        for (Map.Entry<UUID, PatientDetails> patient : patients.entries().entrySet()) {
+            snapshot.addPatients(StoredPatient.newBuilder()
+                    .setPatientKey(key(patient.getKey()))
+                    .setName(patient.getValue().name())
+                    .setEmail(patient.getValue().email()));
+        }
+        for (StoredEvent event : events) {
+            snapshot.addEvents(analytics.state.StoredEvent.newBuilder()
+                    .setId(key(event.id()))
+                    .setPatientKey(key(event.patientId()))
+                    .setType(event.type().getNumber())
+                    .setTimestampMillis(event.timestampMillis()));
+        }
+        return snapshot.build();
+    }
+
+    static PartitionState fromSnapshot(PartitionSnapshot snapshot) {
+        PartitionState state = new PartitionState(snapshot.getPartition());
+        state.nextOffset = snapshot.getNextOffset();
+        for (StoredPatient patient : snapshot.getPatientsList()) {
+            state.patients.update(uuid(patient.getPatientKey()), patient.getName(), patient.getEmail());
+        }
+        for (analytics.state.StoredEvent event : snapshot.getEventsList()) {
+            state.events.addLast(new StoredEvent(uuid(event.getId()), uuid(event.getPatientKey()),
+                    PatientEventType.forNumber(event.getType()), event.getTimestampMillis()));
+        }
+        return state;
+    }
+
+    private static ByteString key(UUID id) {
+        return ByteString.copyFrom(ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array());
+    }
+
+    private static UUID uuid(ByteString key) {
+        ByteBuffer buffer = key.asReadOnlyByteBuffer();
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,78 @@
+package org.pm.analyticsservice.service;
+
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Local snapshots of the state built from each topic partition, such as
+ * {@link PartitionState}, one file per partition under
+ * {@code analytics.state.dir}. A snapshot only saves replaying the
+ * partition from the start: an instance that gets a partition it has no
+ * snapshot for rebuilds it from the topic, so the directory need not be
+ * shared between instances.
+ */
+@Component
+public class PartitionStateStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionStateStore.class);
+
+    private final Path dir;
+
+    public PartitionStateStore(@Value("${analytics.state.dir:}") String dir) {
+        this.dir = dir.isBlank() ? null : Path.of(dir);
+    }
+
+    <T> Optional<T> load(String topic, int partition, Parser<T> parser) {
+        if (dir == null) {
+            return Optional.empty();
+        }
+        Path file = file(topic, partition);
+        try (InputStream in = Files.newInputStream(file)) {
+            T snapshot = parser.parseFrom(in);
+            log.info("Restored {} partition {} from {}", topic, partition, file);
+            return Optional.of(snapshot);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.error("Failed to read snapshot {}; replaying {} partition {}: {}",
+                    file, topic, partition, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Written to a temporary file and moved over the old snapshot, so a
+    // crash mid-write leaves the previous one intact
+    void save(String topic, int partition, MessageLite snapshot) {
+        if (dir == null) {
+            return;
+        }
+        Path file = file(topic, partition);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(dir);
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                snapshot.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to write snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path file(String topic, int partition) {
+        return dir.resolve(topic + "-" + partition + ".snapshot");
+    }
+}
@@ -0,0 +1,48 @@
+package org.pm.analyticsservice.service;
+
+import org.pm.analyticsservice.model.PatientDetails;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Latest name and email per patient, held once here instead of on every
+ * stored event. Deleting a patient drops the entry, which also blanks the
+ * name on their remaining events. Not thread-safe; each one belongs to a
+ * {@link PartitionState}, which guards it.
+ */
+class PatientDimension {
+
+    private final Map<UUID, PatientDetails> patients = new HashMap<>();
+
+    /**
+     * Records what an event says about the patient; a null name or email
+     * keeps the one already known.
+     */
+    void update(UUID patientId, String name, String email) {
+        if (name == null && email == null) {
+            return;
+        }
+        patients.merge(patientId, new PatientDetails(name != null ? name : "", email != null ? email : ""),
+                (known, changed) -> new PatientDetails(
+                        name != null ? name : known.name(),
+                        email != null ? email : known.email()));
+    }
+
+    void remove(UUID patientId) {
+        patients.remove(patientId);
+    }
+
+    PatientDetails get(UUID patientId) {
+        return patients.getOrDefault(patientId, PatientDetails.UNKNOWN);
+    }
+
+    Map<UUID, PatientDetails> entries() {
+        return patients;
+    }
+
+    int size() {
+        return patients.size();
+    }
+}
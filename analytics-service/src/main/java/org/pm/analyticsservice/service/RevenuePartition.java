@@ -0,0 +1,135 @@
+package org.pm.analyticsservice.service;
+
+import analytics.state.RevenueSnapshot;
+import analytics.state.RevenueTotals;
+import billing.events.PaymentEvent;
+import billing.events.PaymentEventType;
+import org.pm.analyticsservice.model.RevenueBucket;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Hourly payment totals per currency built from one partition of the
+ * payment topic. Events are keyed by patient, so every event of a payment
+ * lands in the same partition and a repeat sent by billing-service is
+ * recognised here. Like {@link PartitionState}, the totals are a function
+ * of the partition's records up to {@link #nextOffset()}.
+ */
+final class RevenuePartition {
+
+    private static final String UNKNOWN_CURRENCY = "unknown";
+
+    private final int partition;
+    private final NavigableMap<Instant, Map<String, RevenueBucket>> hours = new TreeMap<>();
+    private final Map<String, Boolean> seen;
+    private long nextOffset;
+
+    RevenuePartition(int partition, int dedupWindow) {
+        this.partition = partition;
+        this.seen = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > dedupWindow;
+            }
+        };
+    }
+
+    int partition() {
+        return partition;
+    }
+
+    synchronized long nextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Adds the record at {@code offset} to its hour's totals and drops hours
+     * before {@code oldest}. Returns false for a record the partition
+     * already includes, a repeated payment event, one from before
+     * {@code oldest}, or one of no known type.
+     */
+    synchronized boolean apply(long offset, PaymentEvent event, Instant oldest) {
+        if (offset < nextOffset) {
+            return false;
+        }
+        nextOffset = offset + 1;
+        hours.headMap(oldest).clear();
+
+        PaymentEventType type = event.getEventType();
+        if (type == PaymentEventType.PAYMENT_EVENT_TYPE_UNSPECIFIED || type == PaymentEventType.UNRECOGNIZED) {
+            return false;
+        }
+        Instant occurredAt = event.getOccurredAtMillis() > 0
+                ? Instant.ofEpochMilli(event.getOccurredAtMillis())
+                : Instant.now();
+        Instant hour = occurredAt.truncatedTo(ChronoUnit.HOURS);
+        if (hour.isBefore(oldest)) {
+            return false;
+        }
+        if (seen.putIfAbsent(event.getPaymentIntentId() + ':' + type, Boolean.TRUE) != null) {
+            return false;
+        }
+
+        String currency = event.getCurrency().isEmpty() ? UNKNOWN_CURRENCY : event.getCurrency().toLowerCase();
+        RevenueBucket bucket = hours.computeIfAbsent(hour, h -> new HashMap<>())
+                .computeIfAbsent(currency, c -> new RevenueBucket(hour, c));
+        switch (type) {
+            case PAYMENT_INTENT_CREATED -> bucket.addCreated(event.getAmount());
+            case PAYMENT_SUCCEEDED -> bucket.addSucceeded(event.getAmount());
+            case PAYMENT_CANCELED -> bucket.addCanceled(event.getAmount());
+            default -> throw new IllegalStateException("Unhandled payment event type " + type);
+        }
+        return true;
+    }
+
+    // Copies of the hourly buckets starting in [from, to)
+    synchronized List<RevenueBucket> hours(Instant from, Instant to) {
+        List<RevenueBucket> buckets = new ArrayList<>();
+        hours.subMap(from, true, to, false).forEach((hour, byCurrency) -> byCurrency.forEach((currency, bucket) -> {
+            RevenueBucket copy = new RevenueBucket(hour, currency);
+            copy.add(bucket);
+            buckets.add(copy);
+        }));
+        return buckets;
+    }
+
+    synchronized RevenueSnapshot toSnapshot() {
+        RevenueSnapshot.Builder snapshot = RevenueSnapshot.newBuilder()
+                .setPartition(partition)
+                .setNextOffset(nextOffset)
+                .addAllSeen(seen.keySet());
+        hours.forEach((hour, byCurrency) -> byCurrency.values().forEach(bucket ->
+                snapshot.addTotals(RevenueTotals.newBuilder()
+                        .setHourMillis(hour.toEpochMilli())
+                        .setCurrency(bucket.getCurrency())
+                        .setCreatedCount(bucket.getCreatedCount())
+                        .setCreatedAmount(bucket.getCreatedAmount())
+                        .setSucceededCount(bucket.getSucceededCount())
+                        .setSucceededAmount(bucket.getSucceededAmount())
+                        .setCanceledCount(bucket.getCanceledCount())
+                        .setCanceledAmount(bucket.getCanceledAmount()))));
+        return snapshot.build();
+    }
+
+    static RevenuePartition fromSnapshot(RevenueSnapshot snapshot, int dedupWindow) {
+        RevenuePartition state = new RevenuePartition(snapshot.getPartition(), dedupWindow);
+        state.nextOffset = snapshot.getNextOffset();
+        snapshot.getSeenList().forEach(key -> state.seen.put(key, Boolean.TRUE));
+        for (RevenueTotals totals : snapshot.getTotalsList()) {
+            Instant hour = Instant.ofEpochMilli(totals.getHourMillis());
+            state.hours.computeIfAbsent(hour, h -> new HashMap<>()).put(totals.getCurrency(),
+                    new RevenueBucket(hour, totals.getCurrency(), totals.getCreatedCount(), totals.getCreatedAmount(),
+                            totals.getSucceededCount(), totals.getSucceededAmount(),
+                            totals.getCanceledCount(), totals.getCanceledAmount()));
+        }
+        return state;
+    }
+}
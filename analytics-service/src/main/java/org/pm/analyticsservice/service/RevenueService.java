@@ -0,0 +1,182 @@
+package org.pm.analyticsservice.service;
+
+import analytics.state.RevenueSnapshot;
+import billing.events.PaymentEvent;
+import jakarta.annotation.PreDestroy;
+import org.pm.analyticsservice.model.PartitionRevenue;
+import org.pm.analyticsservice.model.RevenueBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Payment totals per hour and currency, updated as each payment event
+ * arrives, so a query reads at most one bucket per hour in range instead
+ * of replaying events. Hours older than the retention are dropped. As with
+ * patient state, each partition of the payment topic has its own
+ * {@link RevenuePartition}, restored from its local snapshot when Kafka
+ * assigns the partition and snapshotted when it is revoked, so totals
+ * outlive a restart rather than only the records still on the topic.
+ * Queries here cover this instance's partitions; {@link ClusterQueryService}
+ * adds the other instances'.
+ */
+@Service
+public class RevenueService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueService.class);
+    private static final String TOPIC = "payment";
+
+    private final Duration retention;
+    private final int dedupWindow;
+    private final PartitionStateStore store;
+    private final Map<Integer, RevenuePartition> partitions = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> savedOffsets = new ConcurrentHashMap<>();
+
+    public RevenueService(PartitionStateStore store,
+                          @Value("${analytics.revenue.retention:P90D}") Duration retention,
+                          @Value("${analytics.revenue.dedup-window:100000}") int dedupWindow) {
+        this.store = store;
+        this.retention = retention;
+        this.dedupWindow = dedupWindow;
+    }
+
+    /**
+     * Takes over a partition, restoring its last local snapshot if there is
+     * one; returns the offset to resume reading from, 0 to replay it all.
+     */
+    public long assign(int partition) {
+        RevenuePartition state = partitions.computeIfAbsent(partition,
+                p -> store.load(TOPIC, p, RevenueSnapshot.parser())
+                        .map(snapshot -> RevenuePartition.fromSnapshot(snapshot, dedupWindow))
+                        .orElseGet(() -> new RevenuePartition(p, dedupWindow)));
+        savedOffsets.putIfAbsent(partition, state.nextOffset());
+        return state.nextOffset();
+    }
+
+    public void revoke(int partition) {
+        RevenuePartition state = partitions.remove(partition);
+        if (state != null) {
+            save(state);
+            savedOffsets.remove(partition);
+        }
+    }
+
+    /**
+     * Adds the event read at {@code offset} of {@code partition} to its
+     * hour's totals; returns false if the partition already includes the
+     * record, the event was a repeat, older than the retention, or of no
+     * known type, or the partition is not held by this instance.
+     */
+    public boolean record(int partition, long offset, PaymentEvent event) {
+        RevenuePartition state = partitions.get(partition);
+        if (state == null) {
+            log.warn("Ignoring payment record at offset {} of unassigned partition {}", offset, partition);
+            return false;
+        }
+        return state.apply(offset, event, Instant.now().minus(retention).truncatedTo(ChronoUnit.HOURS));
+    }
+
+    /**
+     * Hourly buckets starting in [from, to) of each partition this instance
+     * holds, for {@link ClusterQueryService} to merge with the other
+     * instances'.
+     */
+    public List<PartitionRevenue> getPartitionRevenue(Instant from, Instant to) {
+        return partitions.values().stream()
+                .sorted(Comparator.comparingInt(RevenuePartition::partition))
+                .map(state -> new PartitionRevenue(state.partition(), state.hours(from, to)))
+                .toList();
+    }
+
+    // Start of the oldest hour kept
+    public Instant retainedFrom() {
+        return Instant.now().minus(retention).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    // Totals of this instance's partitions; see getRevenue(List, ChronoUnit)
+    public List<RevenueBucket> getRevenue(Instant from, Instant to, ChronoUnit unit) {
+        return getRevenue(getPartitionRevenue(from.truncatedTo(unit), to), unit);
+    }
+
+    public Map<String, Object> getRevenueSummary() {
+        return getRevenueSummary(getPartitionRevenue(retainedFrom(), nextHour()));
+    }
+
+    /**
+     * Totals per {@code unit} (hours or days, in UTC) and currency of the
+     * partitions' hourly buckets, oldest first.
+     */
+    public List<RevenueBucket> getRevenue(List<PartitionRevenue> partitions, ChronoUnit unit) {
+        TreeMap<Instant, TreeMap<String, RevenueBucket>> merged = new TreeMap<>();
+        for (PartitionRevenue partition : partitions) {
+            for (RevenueBucket hour : partition.getHours()) {
+                Instant start = hour.getBucketStart().truncatedTo(unit);
+                merged.computeIfAbsent(start, s -> new TreeMap<>())
+                        .computeIfAbsent(hour.getCurrency(), c -> new RevenueBucket(start, c))
+                        .add(hour);
+            }
+        }
+        List<RevenueBucket> buckets = new ArrayList<>();
+        merged.values().forEach(byCurrency -> buckets.addAll(byCurrency.values()));
+        return buckets;
+    }
+
+    // Totals per currency of the partitions' hourly buckets over the last
+    // day and over everything retained
+    public Map<String, Object> getRevenueSummary(List<PartitionRevenue> partitions) {
+        Instant nextHour = nextHour();
+        Instant dayAgo = nextHour.minus(24, ChronoUnit.HOURS);
+        List<RevenueBucket> hours = partitions.stream().flatMap(p -> p.getHours().stream()).toList();
+        Instant oldest = hours.stream()
+                .map(RevenueBucket::getBucketStart)
+                .min(Instant::compareTo)
+                .orElse(dayAgo);
+
+        Map<String, Object> summary = new HashMap<>();
+        // Hourly buckets: the current hour and the 23 before it
+        summary.put("last24Hours", totalsByCurrency(hours, dayAgo, nextHour));
+        summary.put("allRetained", totalsByCurrency(hours, oldest, nextHour));
+        summary.put("retention", retention.toString());
+        return summary;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.state.snapshot-interval:PT1M}")
+    @PreDestroy
+    public void snapshot() {
+        partitions.values().forEach(this::save);
+    }
+
+    private void save(RevenuePartition state) {
+        long offset = state.nextOffset();
+        if (!Objects.equals(savedOffsets.get(state.partition()), offset)) {
+            store.save(TOPIC, state.partition(), state.toSnapshot());
+            savedOffsets.put(state.partition(), offset);
+        }
+    }
+
+    private static Instant nextHour() {
+        return Instant.now().truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+    }
+
+    private static Map<String, RevenueBucket> totalsByCurrency(List<RevenueBucket> hours, Instant from, Instant to) {
+        Map<String, RevenueBucket> totals = new TreeMap<>();
+        hours.stream()
+                .filter(hour -> !hour.getBucketStart().isBefore(from) && hour.getBucketStart().isBefore(to))
+                .forEach(hour -> totals.computeIfAbsent(hour.getCurrency(), c -> new RevenueBucket(from, c)).add(hour));
+        return totals;
+    }
+}
@@ -0,0 +1,10 @@
+package org.pm.analyticsservice.service;
+
+import patient.events.PatientEventType;
+
+import java.util.UUID;
+
+// A patient event as kept in memory; name and email are joined from the
+// partition's PatientDimension when it is read
+record StoredEvent(UUID id, UUID patientId, PatientEventType type, long timestampMillis) {
+}
@@ -0,0 +1,125 @@
+package org.pm.analyticsservice.kafka;
+
+import com.google.protobuf.ByteString;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pm.analyticsservice.model.PatientEventRecord;
+import org.pm.analyticsservice.service.AnalyticsService;
+import org.pm.analyticsservice.service.PartitionStateStore;
+import org.pm.analyticsservice.service.RevenueService;
+import patient.events.PatientEvent;
+import patient.events.PatientEventType;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class KafkaConsumerTest {
+
+    private static final UUID PATIENT = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+
+    private final AnalyticsService analyticsService = new AnalyticsService(new PartitionStateStore(""));
+    private final KafkaConsumer consumer = new KafkaConsumer(analyticsService,
+            new RevenueService(new PartitionStateStore(""), Duration.ofDays(1), 10));
+    private final AtomicLong offset = new AtomicLong();
+
+    // As the rebalance listener does before any record is delivered
+    @BeforeEach
+    void assignPartition() {
+        analyticsService.assign(0);
+    }
+
+    @Test
+    void legacyAndCompactEventsAreRecordedAlike() {
+        consume(PatientEvent.newBuilder()
+                .setPatientId(PATIENT.toString())
+                .setName("Jane Doe")
+                .setEmail("jane@example.com")
+                .setEventType("PATIENT_CREATED")
+                .build().toByteArray());
+        consume(PatientEvent.newBuilder()
+                .setPatientKey(key(PATIENT))
+                .setType(PatientEventType.PATIENT_CREATED)
+                .setName("Jane Doe")
+                .setEmail("jane@example.com")
+                .build().toByteArray());
+
+        assertThat(analyticsService.getAllEvents())
+                .extracting(PatientEventRecord::getPatientId, PatientEventRecord::getPatientName,
+                        PatientEventRecord::getEventType)
+                .containsExactly(
+                        tuple(PATIENT.toString(), "Jane Doe", PatientEventType.PATIENT_CREATED),
+                        tuple(PATIENT.toString(), "Jane Doe", PatientEventType.PATIENT_CREATED));
+    }
+
+    @Test
+    void compactFieldsWinWhenBothAreSent() {
+        PatientEvent event = PatientEvent.newBuilder()
+                .setPatientId(PATIENT.toString())
+                .setPatientKey(key(PATIENT))
+                .setEventType("PATIENT_DELETED")
+                .setType(PatientEventType.PATIENT_DELETED)
+                .build();
+
+        assertThat(KafkaConsumer.patientId(event)).isEqualTo(PATIENT);
+        assertThat(KafkaConsumer.eventType(event)).isEqualTo(PatientEventType.PATIENT_DELETED);
+    }
+
+    @Test
+    void eventsShowTheLatestDetailsUntilThePatientIsDeleted() {
+        consume(created("Jane Doe", "jane@example.com"));
+        consume(created("Jane Smith", "jane@example.com"));
+
+        assertThat(analyticsService.getEventsByPatientId(PATIENT.toString()))
+                .extracting(PatientEventRecord::getPatientName)
+                .containsExactly("Jane Smith", "Jane Smith");
+
+        consume(PatientEvent.newBuilder()
+                .setPatientKey(key(PATIENT))
+                .setType(PatientEventType.PATIENT_DELETED)
+                .build().toByteArray());
+
+        assertThat(analyticsService.getEventsByPatientId(PATIENT.toString()))
+                .extracting(PatientEventRecord::getPatientName, PatientEventRecord::getPatientEmail)
+                .containsOnly(tuple("", ""));
+    }
+
+    @Test
+    void eventsWithoutAKnownTypeAreSkipped() {
+        consume(PatientEvent.newBuilder()
+                .setPatientKey(key(PATIENT))
+                .setEventType("PATIENT_MERGED")
+                .build().toByteArray());
+        consume(PatientEvent.newBuilder()
+                .setPatientKey(key(PATIENT))
+                .setTypeValue(42)
+                .build().toByteArray());
+
+        assertThat(analyticsService.getAllEvents()).isEmpty();
+    }
+
+    private void consume(byte[] event) {
+        consumer.consumeEvent(new ConsumerRecord<>("patient", 0, offset.getAndIncrement(), PATIENT.toString(), event));
+    }
+
+    private static byte[] created(String name, String email) {
+        return PatientEvent.newBuilder()
+                .setPatientKey(key(PATIENT))
+                .setType(PatientEventType.PATIENT_CREATED)
+                .setName(name)
+                .setEmail(email)
+                .build().toByteArray();
+    }
+
+    private static ByteString key(UUID id) {
+        return ByteString.copyFrom(ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array());
+    }
+}
@@ -0,0 +1,91 @@
+package org.pm.analyticsservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pm.analyticsservice.model.PatientEventRecord;
+import org.pm.analyticsservice.model.PatientEventSummary;
+import patient.events.PatientEventType;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AnalyticsServiceTest {
+
+    private static final UUID JANE = UUID.randomUUID();
+    private static final UUID JOHN = UUID.randomUUID();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void revokedPartitionIsRestoredFromItsSnapshot() {
+        AnalyticsService first = new AnalyticsService(new PartitionStateStore(dir.toString()));
+        first.assign(3);
+        first.recordEvent(3, 0, 1_000, JANE, "Jane Doe", "jane@example.com", PatientEventType.PATIENT_CREATED);
+        first.recordEvent(3, 1, 2_000, JANE, "Jane Smith", null, PatientEventType.PATIENT_CREATED);
+        first.revoke(3);
+
+        AnalyticsService next = new AnalyticsService(new PartitionStateStore(dir.toString()));
+
+        assertThat(next.assign(3)).isEqualTo(2);
+        assertThat(next.getAllEvents())
+                .extracting(PatientEventRecord::getPatientName, PatientEventRecord::getPatientEmail)
+                .containsExactly(tuple("Jane Smith", "jane@example.com"), tuple("Jane Smith", "jane@example.com"));
+    }
+
+    @Test
+    void partitionWithoutSnapshotIsReplayedFromTheStart() {
+        AnalyticsService analytics = new AnalyticsService(new PartitionStateStore(dir.toString()));
+
+        assertThat(analytics.assign(5)).isZero();
+    }
+
+    @Test
+    void redeliveredRecordsAreIgnored() {
+        AnalyticsService analytics = new AnalyticsService(new PartitionStateStore(""));
+        analytics.assign(0);
+
+        assertThat(analytics.recordEvent(0, 7, 1_000, JANE, "Jane Doe", "", PatientEventType.PATIENT_CREATED))
+                .isTrue();
+        assertThat(analytics.recordEvent(0, 7, 1_000, JANE, "Jane Doe", "", PatientEventType.PATIENT_CREATED))
+                .isFalse();
+        assertThat(analytics.getAllEvents()).hasSize(1);
+    }
+
+    @Test
+    void recordsForUnassignedPartitionsAreIgnored() {
+        AnalyticsService analytics = new AnalyticsService(new PartitionStateStore(""));
+        analytics.assign(0);
+        analytics.revoke(0);
+
+        // Still in flight when the partition was revoked
+        assertThat(analytics.recordEvent(0, 0, 1_000, JANE, "Jane Doe", "", PatientEventType.PATIENT_CREATED))
+                .isFalse();
+        assertThat(analytics.recordEvent(4, 0, 1_000, JANE, "Jane Doe", "", PatientEventType.PATIENT_CREATED))
+                .isFalse();
+        assertThat(analytics.getPartitions()).isEmpty();
+        assertThat(analytics.getAllEvents()).isEmpty();
+    }
+
+    @Test
+    void summaryAddsUpThePartitions() {
+        AnalyticsService analytics = new AnalyticsService(new PartitionStateStore(""));
+        long now = System.currentTimeMillis();
+        analytics.assign(0);
+        analytics.assign(1);
+        analytics.recordEvent(0, 0, now, JANE, "Jane Doe", "", PatientEventType.PATIENT_CREATED);
+        analytics.recordEvent(0, 1, now, JANE, null, null, PatientEventType.PATIENT_DELETED);
+        analytics.recordEvent(1, 0, now, JOHN, "John Roe", "", PatientEventType.PATIENT_CREATED);
+        analytics.revoke(1);
+
+        PatientEventSummary summary = analytics.getAnalyticsSummary();
+
+        assertThat(summary.getPartitions()).containsExactly(0);
+        assertThat(summary.getTotalEvents()).isEqualTo(2);
+        assertThat(summary.getUniquePatients()).isEqualTo(1);
+        assertThat(summary.getEventsByType()).containsEntry("PATIENT_CREATED", 1L).containsEntry("PATIENT_DELETED", 1L);
+    }
+}
@@ -0,0 +1,140 @@
+package org.pm.analyticsservice.service;
+
+import billing.events.PaymentEvent;
+import billing.events.PaymentEventType;
+import org.junit.jupiter.api.Test;
+import org.pm.analyticsservice.model.PatientEventRecord;
+import org.pm.analyticsservice.model.PatientEventSummary;
+import org.pm.analyticsservice.model.RevenueBucket;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import patient.events.PatientEventType;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ClusterQueryServiceTest {
+
+    private final AnalyticsService analytics = new AnalyticsService(new PartitionStateStore(""));
+    private final RevenueService revenue = new RevenueService(new PartitionStateStore(""), Duration.ofDays(90), 100);
+    private final RestClient.Builder restClient = RestClient.builder();
+    private final MockRestServiceServer peers = MockRestServiceServer.bindTo(restClient)
+            .ignoreExpectOrder(true).build();
+
+    @Test
+    void addsUpEveryInstanceAndCountsEachPartitionOnce() {
+        analytics.assign(0);
+        analytics.recordEvent(0, 0, System.currentTimeMillis(), UUID.randomUUID(), "Jane Doe", "",
+                PatientEventType.PATIENT_CREATED);
+        // Partition 0 is also reported by the peer mid-rebalance
+        peers.expect(requestTo("http://192.0.2.10:4002/analytics/summary/partitions"))
+                .andRespond(withSuccess("""
+                        [{"partitions":[0],"totalEvents":1,"eventsByType":{"PATIENT_CREATED":1},"uniquePatients":1},
+                         {"partitions":[2],"totalEvents":3,"eventsByType":{"PATIENT_CREATED":2,"PATIENT_DELETED":1},
+                          "uniquePatients":2}]""", MediaType.APPLICATION_JSON));
+
+        PatientEventSummary summary = service("192.0.2.10").getSummary();
+
+        assertThat(summary.getPartitions()).containsExactly(0, 2);
+        assertThat(summary.getTotalEvents()).isEqualTo(4);
+        assertThat(summary.getUniquePatients()).isEqualTo(3);
+        assertThat(summary.getEventsByType()).containsEntry("PATIENT_CREATED", 3L).containsEntry("PATIENT_DELETED", 1L);
+        assertThat(summary.isComplete()).isTrue();
+        peers.verify();
+    }
+
+    @Test
+    void unreachableInstanceMarksTheSummaryIncomplete() {
+        peers.expect(requestTo("http://192.0.2.10:4002/analytics/summary/partitions"))
+                .andRespond(withSuccess("[{\"partitions\":[1],\"totalEvents\":2}]", MediaType.APPLICATION_JSON));
+        peers.expect(requestTo("http://192.0.2.11:4002/analytics/summary/partitions"))
+                .andRespond(withServerError());
+
+        PatientEventSummary summary = service("192.0.2.10, 192.0.2.11").getSummary();
+
+        assertThat(summary.getPartitions()).containsExactly(1);
+        assertThat(summary.getTotalEvents()).isEqualTo(2);
+        assertThat(summary.isComplete()).isFalse();
+    }
+
+    @Test
+    void revenueAddsUpEveryInstanceAndCountsEachPartitionOnce() {
+        Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(1, ChronoUnit.HOURS);
+        revenue.assign(0);
+        revenue.record(0, 0, PaymentEvent.newBuilder()
+                .setPaymentIntentId("pi_1")
+                .setEventType(PaymentEventType.PAYMENT_SUCCEEDED)
+                .setAmount(1000)
+                .setCurrency("usd")
+                .setOccurredAtMillis(hour.toEpochMilli())
+                .build());
+        // Partition 0 is also reported by the peer mid-rebalance
+        peers.expect(requestTo(startsWith("http://192.0.2.10:4002/analytics/revenue/partitions?from=")))
+                .andRespond(withSuccess("""
+                        [{"partition":0,"hours":[{"bucketStart":"%1$s","currency":"usd",%2$s}]},
+                         {"partition":3,"hours":[{"bucketStart":"%1$s","currency":"usd",%3$s}]}]""".formatted(hour, succeeded(1, 1000), succeeded(2, 250)),
+                        MediaType.APPLICATION_JSON));
+
+        List<RevenueBucket> buckets = service("192.0.2.10").getRevenue(hour, Instant.now(), ChronoUnit.HOURS);
+
+        assertThat(buckets).singleElement().satisfies(bucket -> {
+            assertThat(bucket.getSucceededCount()).isEqualTo(3);
+            assertThat(bucket.getSucceededAmount()).isEqualTo(1250);
+        });
+        peers.verify();
+    }
+
+    @Test
+    void unreachableInstanceMarksTheRevenueSummaryIncomplete() {
+        revenue.assign(0);
+        peers.expect(requestTo(startsWith("http://192.0.2.10:4002/analytics/revenue/partitions?from=")))
+                .andRespond(withServerError());
+
+        Map<String, Object> summary = service("192.0.2.10").getRevenueSummary();
+
+        assertThat(summary).containsEntry("partitions", List.of(0)).containsEntry("complete", false);
+    }
+
+    @Test
+    void eventsOfEveryInstanceAreListedOnceNewestFirst() {
+        UUID patient = UUID.randomUUID();
+        analytics.assign(0);
+        analytics.recordEvent(0, 0, System.currentTimeMillis() - 60_000, patient, "Jane Doe", "",
+                PatientEventType.PATIENT_CREATED);
+        String local = analytics.getAllEvents().getFirst().getId();
+        // The peer still reports the local event mid-rebalance
+        peers.expect(requestTo("http://192.0.2.10:4002/analytics/events/partitions?limit=2"))
+                .andRespond(withSuccess("""
+                        [{"id":"%s","patientId":"%s","eventType":"PATIENT_CREATED","timestamp":"%s"},
+                         {"id":"remote-1","patientId":"%2$s","eventType":"PATIENT_DELETED","timestamp":"%s"}]"""
+                        .formatted(local, patient, LocalDateTime.now().minusMinutes(1), LocalDateTime.now()),
+                        MediaType.APPLICATION_JSON));
+
+        List<PatientEventRecord> events = service("192.0.2.10").getRecentEvents(2);
+
+        assertThat(events).extracting(PatientEventRecord::getId).containsExactly("remote-1", local);
+        peers.verify();
+    }
+
+    private static String succeeded(long count, long amount) {
+        return """
+                "createdCount":0,"createdAmount":0,"succeededCount":%d,"succeededAmount":%d,\
+                "canceledCount":0,"canceledAmount":0""".formatted(count, amount);
+    }
+
+    private ClusterQueryService service(String peerNames) {
+        return new ClusterQueryService(analytics, revenue, peerNames, 4002, restClient.build());
+    }
+}
@@ -0,0 +1,34 @@
+package org.pm.analyticsservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.pm.analyticsservice.model.PatientDetails;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientDimensionTest {
+
+    private static final UUID JANE = UUID.randomUUID();
+    private static final UUID JOHN = UUID.randomUUID();
+
+    private final PatientDimension patients = new PatientDimension();
+
+    @Test
+    void missingFieldsKeepWhatIsKnown() {
+        patients.update(JANE, "Jane Doe", "jane@example.com");
+        patients.update(JANE, "Jane Smith", null);
+
+        assertThat(patients.get(JANE)).isEqualTo(new PatientDetails("Jane Smith", "jane@example.com"));
+        assertThat(patients.get(JOHN)).isEqualTo(PatientDetails.UNKNOWN);
+    }
+
+    @Test
+    void removedPatientsAreUnknown() {
+        patients.update(JOHN, "John Roe", "john@example.com");
+        patients.remove(JOHN);
+
+        assertThat(patients.get(JOHN)).isEqualTo(PatientDetails.UNKNOWN);
+        assertThat(patients.size()).isZero();
+    }
+}
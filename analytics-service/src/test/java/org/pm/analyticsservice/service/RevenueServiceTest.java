@@ -0,0 +1,137 @@
+package org.pm.analyticsservice.service;
+
+import billing.events.PaymentEvent;
+import billing.events.PaymentEventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pm.analyticsservice.model.RevenueBucket;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RevenueServiceTest {
+
+    private final RevenueService revenueService =
+            new RevenueService(new PartitionStateStore(""), Duration.ofDays(90), 1000);
+    private final Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(2, ChronoUnit.HOURS);
+    private long offset;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void assignPartition() {
+        revenueService.assign(0);
+    }
+
+    @Test
+    void totalsAreKeptPerHourAndCurrency() {
+        record(event("pi_1", PaymentEventType.PAYMENT_INTENT_CREATED, 1000, "usd", hour));
+        record(event("pi_1", PaymentEventType.PAYMENT_SUCCEEDED, 1000, "usd", hour.plusSeconds(60)));
+        record(event("pi_2", PaymentEventType.PAYMENT_SUCCEEDED, 2500, "usd", hour.plusSeconds(3600)));
+        record(event("pi_3", PaymentEventType.PAYMENT_CANCELED, 700, "eur", hour));
+
+        List<RevenueBucket> buckets = revenueService.getRevenue(hour, Instant.now(), ChronoUnit.HOURS);
+
+        assertThat(buckets).extracting(RevenueBucket::getBucketStart, RevenueBucket::getCurrency,
+                        RevenueBucket::getSucceededAmount, RevenueBucket::getCanceledAmount)
+                .containsExactly(
+                        tuple(hour, "eur", 0L, 700L),
+                        tuple(hour, "usd", 1000L, 0L),
+                        tuple(hour.plusSeconds(3600), "usd", 2500L, 0L));
+        assertThat(buckets.get(1).getCreatedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void redeliveredEventsAreCountedOnce() {
+        PaymentEvent succeeded = event("pi_1", PaymentEventType.PAYMENT_SUCCEEDED, 1000, "usd", hour);
+
+        assertThat(record(succeeded)).isTrue();
+        assertThat(record(succeeded)).isFalse();
+        assertThat(revenueService.record(0, offset - 1, succeeded)).isFalse();
+
+        assertThat(revenueService.getRevenue(hour, Instant.now(), ChronoUnit.HOURS))
+                .singleElement()
+                .satisfies(bucket -> assertThat(bucket.getSucceededCount()).isEqualTo(1));
+    }
+
+    @Test
+    void revokedPartitionIsRestoredFromItsSnapshot() {
+        RevenueService first = new RevenueService(new PartitionStateStore(dir.toString()), Duration.ofDays(90), 1000);
+        first.assign(2);
+        PaymentEvent succeeded = event("pi_1", PaymentEventType.PAYMENT_SUCCEEDED, 1000, "usd", hour);
+        first.record(2, 0, succeeded);
+        first.record(2, 1, event("pi_2", PaymentEventType.PAYMENT_SUCCEEDED, 400, "usd", hour));
+        first.revoke(2);
+
+        RevenueService next = new RevenueService(new PartitionStateStore(dir.toString()), Duration.ofDays(90), 1000);
+
+        assertThat(next.assign(2)).isEqualTo(2);
+        // Sent again by billing-service after the snapshot
+        assertThat(next.record(2, 2, succeeded)).isFalse();
+        assertThat(next.getRevenue(hour, Instant.now(), ChronoUnit.HOURS))
+                .singleElement()
+                .satisfies(bucket -> assertThat(bucket.getSucceededAmount()).isEqualTo(1400));
+    }
+
+    @Test
+    void recordsForUnassignedPartitionsAreIgnored() {
+        revenueService.revoke(0);
+
+        assertThat(record(event("pi_1", PaymentEventType.PAYMENT_SUCCEEDED, 1000, "usd", hour)))
+                .isFalse();
+        assertThat(revenueService.getRevenue(hour, Instant.now(), ChronoUnit.HOURS)).isEmpty();
+    }
+
+    @Test
+    void daysFoldTheirHours() {
+        Instant day = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(3, ChronoUnit.DAYS);
+        record(event("pi_1", PaymentEventType.PAYMENT_SUCCEEDED, 1000, "usd", day.plusSeconds(3600)));
+        record(event("pi_2", PaymentEventType.PAYMENT_SUCCEEDED, 500, "usd", day.plusSeconds(20 * 3600)));
+
+        assertThat(revenueService.getRevenue(day, Instant.now(), ChronoUnit.DAYS))
+                .singleElement()
+                .satisfies(bucket -> {
+                    assertThat(bucket.getBucketStart()).isEqualTo(day);
+                    assertThat(bucket.getSucceededCount()).isEqualTo(2);
+                    assertThat(bucket.getSucceededAmount()).isEqualTo(1500);
+                });
+    }
+
+    @Test
+    void eventsOlderThanTheRetentionAreIgnored() {
+        Instant longAgo = Instant.now().minus(Duration.ofDays(91));
+
+        assertThat(record(event("pi_1", PaymentEventType.PAYMENT_SUCCEEDED, 1000, "usd", longAgo)))
+                .isFalse();
+        record(event("pi_2", PaymentEventType.PAYMENT_SUCCEEDED, 300, "usd", hour));
+
+        @SuppressWarnings("unchecked")
+        Map<String, RevenueBucket> all = (Map<String, RevenueBucket>) revenueService.getRevenueSummary().get("allRetained");
+        assertThat(all.get("usd").getSucceededAmount()).isEqualTo(300);
+    }
+
+    // The next record of partition 0
+    private boolean record(PaymentEvent event) {
+        return revenueService.record(0, offset++, event);
+    }
+
+    private static PaymentEvent event(String id, PaymentEventType type, long amount, String currency, Instant at) {
+        return PaymentEvent.newBuilder()
+                .setPaymentIntentId(id)
+                .setPatientId("123e4567-e89b-12d3-a456-426614174000")
+                .setEventType(type)
+                .setAmount(amount)
+                .setCurrency(currency)
+                .setOccurredAtMillis(at.toEpochMilli())
+                .build();
+    }
+}
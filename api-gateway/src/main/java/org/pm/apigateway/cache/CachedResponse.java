@@ -0,0 +1,23 @@
+package org.pm.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A buffered backend response. The body is kept as a plain byte array and
+ * wrapped in a fresh buffer on every hit, so entries are never tied to a
+ * pooled Netty buffer that could be released underneath them.
+ */
+public record CachedResponse(String namespace, int status, HttpHeaders headers,
+                             byte[] body, long storedAtNanos, long expiresAtNanos) {
+
+    // Rough per-entry overhead for the key, headers and bookkeeping
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    public long weight() {
+        return body.length + ENTRY_OVERHEAD_BYTES;
+    }
+
+    public boolean isExpired(long nowNanos) {
+        return nowNanos - expiresAtNanos >= 0;
+    }
+}
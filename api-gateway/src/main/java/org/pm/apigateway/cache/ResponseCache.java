@@ -0,0 +1,127 @@
+package org.pm.apigateway.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU store for cached GET responses, shared by every route
+ * that uses the ResponseCache filter.
+ *
+ * Entries are grouped by namespace (the route id) so a write through a
+ * route can drop everything cached for it. Each namespace also carries a
+ * generation number: a response is only stored if no invalidation happened
+ * while it was being fetched, so a GET racing a POST cannot put stale data
+ * back into the cache.
+ *
+ * All operations are O(1) except invalidation, which scans the entries and
+ * only runs on writes. A single lock guards the map; the critical sections
+ * are a few map operations and never include I/O.
+ */
+@Component
+public class ResponseCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Long> generations = new HashMap<>();
+    private long totalBytes;
+
+    public ResponseCache(@Value("${gateway.response-cache.max-size:64MB}") DataSize maxSize,
+                         @Value("${gateway.response-cache.max-entry-size:1MB}") DataSize maxEntrySize) {
+        this.maxBytes = maxSize.toBytes();
+        this.maxEntryBytes = maxEntrySize.toBytes();
+    }
+
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public synchronized CachedResponse get(String key, long nowNanos) {
+        CachedResponse response = entries.get(key);
+        if (response != null && response.isExpired(nowNanos)) {
+            remove(key);
+            return null;
+        }
+        return response;
+    }
+
+    public synchronized long generation(String namespace) {
+        return generations.getOrDefault(namespace, 0L);
+    }
+
+    /**
+     * Stores {@code response} unless its namespace was invalidated since
+     * {@code generation} was read or the body exceeds the per-entry limit,
+     * evicting least recently used entries to stay within the size bound.
+     */
+    public synchronized boolean put(String key, CachedResponse response, long generation) {
+        if (response.body().length > maxEntryBytes || generation != generation(response.namespace())) {
+            return false;
+        }
+        remove(key);
+        entries.put(key, response);
+        totalBytes += response.weight();
+
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().weight();
+            eldest.remove();
+        }
+        return true;
+    }
+
+    /**
+     * Drops every entry in {@code namespace} and bumps its generation so
+     * fetches already in flight are not stored.
+     */
+    public synchronized int invalidate(String namespace) {
+        generations.merge(namespace, 1L, Long::sum);
+        int removed = 0;
+        Iterator<CachedResponse> it = entries.values().iterator();
+        while (it.hasNext()) {
+            CachedResponse response = it.next();
+            if (response.namespace().equals(namespace)) {
+                totalBytes -= response.weight();
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.response-cache.eviction-interval:PT30S}")
+    public synchronized void evictExpired() {
+        long now = System.nanoTime();
+        Iterator<CachedResponse> it = entries.values().iterator();
+        while (it.hasNext()) {
+            CachedResponse response = it.next();
+            if (response.isExpired(now)) {
+                totalBytes -= response.weight();
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long sizeInBytes() {
+        return totalBytes;
+    }
+
+    private void remove(String key) {
+        CachedResponse previous = entries.remove(key);
+        if (previous != null) {
+            totalBytes -= previous.weight();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.pm.apigateway.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * WebClient for the gateway's own calls to auth-service (JWKS and revocation
+ * feed), with explicit timeouts so a slow auth-service cannot hold
+ * connections open indefinitely. It has its own small pool, separate from
+ * the routed traffic, so background refreshes never wait behind a burst.
+ */
+@Configuration
+public class AuthServiceClientConfig {
+
+    @Bean
+    public WebClient authServiceWebClient(WebClient.Builder webClientBuilder,
+                                          @Value("${auth.service.url}") String authServiceUrl,
+                                          @Value("${auth.service.connect-timeout:1s}") Duration connectTimeout,
+                                          @Value("${auth.service.response-timeout:3s}") Duration responseTimeout,
+                                          @Value("${auth.service.max-connections:10}") int maxConnections) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("auth-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(responseTimeout)
+                .maxIdleTime(Duration.ofSeconds(15))
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(responseTimeout);
+
+        return webClientBuilder.clone()
+                .baseUrl(authServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
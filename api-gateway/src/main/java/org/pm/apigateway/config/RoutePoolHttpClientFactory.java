@@ -0,0 +1,104 @@
+package org.pm.apigateway.config;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the gateway's upstream connection pool as one fixed-size pool per
+ * backend instead of a single shared one, so a burst against one service
+ * cannot exhaust connections needed by the others.
+ *
+ * Defaults come from {@code spring.cloud.gateway.httpclient.pool}; a route
+ * overrides them for its backend with these metadata keys:
+ * <ul>
+ *     <li>{@code max-connections}: connections kept open to the backend</li>
+ *     <li>{@code pending-acquire-max-count}: requests allowed to queue for a connection</li>
+ *     <li>{@code pending-acquire-timeout}: how long a queued request waits, in ms</li>
+ * </ul>
+ */
+public class RoutePoolHttpClientFactory extends HttpClientFactory {
+
+    public static final String MAX_CONNECTIONS = "max-connections";
+    public static final String PENDING_ACQUIRE_MAX_COUNT = "pending-acquire-max-count";
+    public static final String PENDING_ACQUIRE_TIMEOUT = "pending-acquire-timeout";
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 500;
+
+    private final GatewayProperties gatewayProperties;
+
+    public RoutePoolHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                      HttpClientSslConfigurer sslConfigurer,
+                                      List<HttpClientCustomizer> customizers,
+                                      GatewayProperties gatewayProperties) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.gatewayProperties = gatewayProperties;
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        HttpClientProperties.Pool pool = properties.getPool();
+        if (pool.getType() == HttpClientProperties.Pool.PoolType.DISABLED) {
+            return ConnectionProvider.newConnection();
+        }
+
+        int maxConnections = pool.getMaxConnections() != null ? pool.getMaxConnections() : DEFAULT_MAX_CONNECTIONS;
+        ConnectionProvider.Builder builder = withPoolDefaults(ConnectionProvider.builder(pool.getName()), pool)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxConnections * 2);
+
+        for (RouteDefinition route : gatewayProperties.getRoutes()) {
+            Map<String, Object> metadata = route.getMetadata();
+            URI uri = route.getUri();
+            if (!metadata.containsKey(MAX_CONNECTIONS) || uri == null || uri.getHost() == null) {
+                continue;
+            }
+            int routeMaxConnections = intValue(metadata.get(MAX_CONNECTIONS));
+            int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+
+            // Reactor Netty looks pools up by the unresolved address it was asked to connect to
+            builder.forRemoteHost(InetSocketAddress.createUnresolved(uri.getHost(), port), spec -> {
+                withPoolDefaults(spec, pool)
+                        .maxConnections(routeMaxConnections)
+                        .pendingAcquireMaxCount(metadata.containsKey(PENDING_ACQUIRE_MAX_COUNT)
+                                ? intValue(metadata.get(PENDING_ACQUIRE_MAX_COUNT)) : routeMaxConnections * 2);
+                if (metadata.containsKey(PENDING_ACQUIRE_TIMEOUT)) {
+                    spec.pendingAcquireTimeout(Duration.ofMillis(intValue(metadata.get(PENDING_ACQUIRE_TIMEOUT))));
+                }
+            });
+        }
+        return builder.build();
+    }
+
+    private static <S extends ConnectionProvider.ConnectionPoolSpec<S>> S withPoolDefaults(
+            S spec, HttpClientProperties.Pool pool) {
+        spec.pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()))
+                .evictInBackground(pool.getEvictionInterval())
+                .metrics(pool.isMetrics());
+        if (pool.getMaxIdleTime() != null) {
+            spec.maxIdleTime(pool.getMaxIdleTime());
+        }
+        if (pool.getMaxLifeTime() != null) {
+            spec.maxLifeTime(pool.getMaxLifeTime());
+        }
+        if (pool.getLeasingStrategy() == HttpClientProperties.Pool.LeasingStrategy.LIFO) {
+            spec.lifo();
+        }
+        return spec;
+    }
+
+    private static int intValue(Object value) {
+        return value instanceof Number number ? number.intValue() : Integer.parseInt(value.toString());
+    }
+}
@@ -0,0 +1,71 @@
+package org.pm.apigateway.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+import java.util.List;
+
+/**
+ * Customizes the Reactor Netty client the gateway uses to call backends.
+ */
+@Configuration
+public class UpstreamHttpClientConfig {
+
+    /**
+     * Replaces the gateway's default client factory so each backend gets
+     * its own connection pool; see {@link RoutePoolHttpClientFactory}.
+     */
+    @Bean
+    public HttpClientFactory gatewayHttpClientFactory(HttpClientProperties properties,
+                                                      ServerProperties serverProperties,
+                                                      HttpClientSslConfigurer sslConfigurer,
+                                                      List<HttpClientCustomizer> customizers,
+                                                      GatewayProperties gatewayProperties) {
+        return new RoutePoolHttpClientFactory(properties, serverProperties, sslConfigurer,
+                customizers, gatewayProperties);
+    }
+
+    /**
+     * Keeps pooled connections alive at the TCP level and, when enabled,
+     * offers HTTP/2 cleartext (h2c) so many requests share one connection.
+     * Backends that do not support h2c decline the upgrade and stay on
+     * HTTP/1.1.
+     */
+    @Bean
+    public HttpClientCustomizer upstreamProtocolCustomizer(
+            @Value("${gateway.upstream.h2c:false}") boolean h2c) {
+        return httpClient -> {
+            httpClient = httpClient.option(ChannelOption.SO_KEEPALIVE, true);
+            return h2c ? httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11) : httpClient;
+        };
+    }
+
+    /**
+     * Publishes Reactor Netty's client timers (reactor.netty.http.client.*),
+     * which split upstream time into connect, request send and response
+     * phases per backend address. The uri tag is reduced to its first path
+     * segment so ids in paths do not create a meter per patient.
+     */
+    @Bean
+    public HttpClientCustomizer upstreamMetricsCustomizer() {
+        return httpClient -> httpClient.metrics(true, UpstreamHttpClientConfig::uriTag);
+    }
+
+    static String uriTag(String uri) {
+        int start = uri.startsWith("/") ? 1 : 0;
+        int end = start;
+        while (end < uri.length() && uri.charAt(end) != '/' && uri.charAt(end) != '?') {
+            end++;
+        }
+        return "/" + uri.substring(start, end);
+    }
+}
@@ -0,0 +1,33 @@
+package org.pm.apigateway.controller;
+
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Map;
+
+/**
+ * Fast responses for routes whose circuit breaker is open or whose backend
+ * failed or timed out, instead of holding the client connection.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    @RequestMapping("/{service}")
+    public ResponseEntity<Map<String, String>> fallback(@PathVariable String service,
+                                                        ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(
+                ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .body(Map.of(
+                        "error", service + " is temporarily unavailable",
+                        "reason", cause != null ? cause.getClass().getSimpleName() : "unknown"));
+    }
+}
@@ -0,0 +1,9 @@
+package org.pm.apigateway.exception;
+
+import io.jsonwebtoken.JwtException;
+
+public class RevokedTokenException extends JwtException {
+    public RevokedTokenException(String jti) {
+        super("Token " + jti + " has been revoked");
+    }
+}
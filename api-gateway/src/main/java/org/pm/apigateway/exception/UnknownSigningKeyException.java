@@ -0,0 +1,9 @@
+package org.pm.apigateway.exception;
+
+import io.jsonwebtoken.JwtException;
+
+public class UnknownSigningKeyException extends JwtException {
+    public UnknownSigningKeyException(String kid) {
+        super("No verification key for kid " + kid);
+    }
+}
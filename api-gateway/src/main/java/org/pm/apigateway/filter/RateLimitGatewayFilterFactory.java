@@ -0,0 +1,98 @@
+package org.pm.apigateway.filter;
+
+import io.jsonwebtoken.Claims;
+import org.pm.apigateway.ratelimit.TokenBucketRateLimiter;
+import org.pm.apigateway.security.JwtVerifier;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route rate limit keyed by the JWT subject, or by client IP on routes
+ * without JWT validation (e.g. /auth/login). Must be listed after
+ * JWTValidation so the verified claims are available.
+ *
+ * Usage: {@code RateLimit=<tokens per second>,<burst capacity>}
+ */
+@Component
+public class RateLimitGatewayFilterFactory extends
+        AbstractGatewayFilterFactory<RateLimitGatewayFilterFactory.Config> {
+
+    // Trust only the address appended by the load balancer in front of us
+    private static final XForwardedRemoteAddressResolver REMOTE_ADDRESS_RESOLVER =
+            XForwardedRemoteAddressResolver.maxTrustedIndex(1);
+
+    private final TokenBucketRateLimiter rateLimiter;
+
+    public RateLimitGatewayFilterFactory(TokenBucketRateLimiter rateLimiter) {
+        super(Config.class);
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("replenishRate", "burstCapacity");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            long waitNanos = rateLimiter.tryAcquire(key(exchange),
+                    config.getReplenishRate(), config.getBurstCapacity());
+            if (waitNanos == 0) {
+                return chain.filter(exchange);
+            }
+
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return exchange.getResponse().setComplete();
+        };
+    }
+
+    private static String key(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "";
+
+        Claims claims = exchange.getAttribute(JwtVerifier.CLAIMS_ATTRIBUTE);
+        if (claims != null && claims.getSubject() != null) {
+            return routeId + "|sub:" + claims.getSubject();
+        }
+
+        InetSocketAddress address = REMOTE_ADDRESS_RESOLVER.resolve(exchange);
+        String ip = address != null && address.getAddress() != null
+                ? address.getAddress().getHostAddress() : "unknown";
+        return routeId + "|ip:" + ip;
+    }
+
+    public static class Config {
+        private double replenishRate = 10;
+        private int burstCapacity = 20;
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+    }
+}
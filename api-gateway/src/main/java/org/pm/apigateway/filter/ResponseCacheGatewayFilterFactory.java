@@ -0,0 +1,192 @@
+package org.pm.apigateway.filter;
+
+import io.jsonwebtoken.Claims;
+import org.pm.apigateway.cache.CachedResponse;
+import org.pm.apigateway.cache.ResponseCache;
+import org.pm.apigateway.security.JwtVerifier;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches successful GET responses for a short time so dashboards polling the
+ * same endpoints are served by the gateway instead of the backend.
+ *
+ * Concurrent misses for the same key are coalesced: the first request goes
+ * to the backend and the others wait for its response. POST, PUT, PATCH and
+ * DELETE requests through the route invalidate everything cached for it.
+ * Must be listed after JWTValidation so the subject is available, and
+ * before CircuitBreaker so fallback responses are never cached.
+ *
+ * Usage: {@code ResponseCache=<ttl>,<per subject>}, e.g. {@code ResponseCache=5s,true}
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends
+        AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Set<HttpMethod> WRITE_METHODS =
+            Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    // Recomputed or connection-specific, or must never be shared between callers
+    private static final List<String> UNCACHED_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_ENCODING, HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION,
+            HttpHeaders.DATE, HttpHeaders.SET_COOKIE, CACHE_STATUS_HEADER);
+
+    private final ResponseCache responseCache;
+    private final ConcurrentMap<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache responseCache) {
+        super(Config.class);
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("timeToLive", "perSubject");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String namespace = routeId(exchange);
+
+            if (WRITE_METHODS.contains(request.getMethod())) {
+                // Invalidate up front so GETs racing the write are not stored,
+                // and again afterwards to drop anything cached in between
+                responseCache.invalidate(namespace);
+                return chain.filter(exchange).doFinally(signal -> responseCache.invalidate(namespace));
+            }
+            if (!HttpMethod.GET.equals(request.getMethod()) || bypassesCache(request)) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(exchange, namespace, config);
+            CachedResponse cached = responseCache.get(key, System.nanoTime());
+            if (cached != null) {
+                return write(exchange, cached, "HIT");
+            }
+
+            CompletableFuture<CachedResponse> fill = new CompletableFuture<>();
+            CompletableFuture<CachedResponse> leader = inFlight.putIfAbsent(key, fill);
+            if (leader != null) {
+                // Empty when the leader's response was not cacheable
+                return Mono.fromFuture(leader, true)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(response -> response.isPresent()
+                                ? write(exchange, response.get(), "COALESCED")
+                                : chain.filter(exchange));
+            }
+
+            // The body is captured by ResponseCaptureFilter, which wraps the
+            // response before NettyWriteResponseFilter writes it
+            long generation = responseCache.generation(namespace);
+            exchange.getAttributes().put(ResponseCaptureFilter.CAPTURE_ATTRIBUTE, new ResponseCaptureFilter.Capture(
+                    responseCache.getMaxEntryBytes(), config.isPerSubject(), body -> {
+                CachedResponse response = toCachedResponse(namespace, exchange.getResponse(), body, config);
+                responseCache.put(key, response, generation);
+                fill.complete(response);
+            }));
+            exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        inFlight.remove(key, fill);
+                        fill.complete(null);
+                    });
+        };
+    }
+
+    private static boolean bypassesCache(ServerHttpRequest request) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store"));
+    }
+
+    private static String key(ServerWebExchange exchange, String namespace, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        StringBuilder key = new StringBuilder(namespace)
+                .append('|').append(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        key.append("|accept:").append(request.getHeaders().getFirst(HttpHeaders.ACCEPT));
+
+        if (config.isPerSubject()) {
+            Claims claims = exchange.getAttribute(JwtVerifier.CLAIMS_ATTRIBUTE);
+            key.append("|sub:").append(claims != null ? claims.getSubject() : "");
+        }
+        return key.toString();
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "";
+    }
+
+    private static CachedResponse toCachedResponse(String namespace, ServerHttpResponse response,
+                                                   byte[] body, Config config) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        UNCACHED_HEADERS.forEach(headers::remove);
+
+        long now = System.nanoTime();
+        return new CachedResponse(namespace, response.getStatusCode().value(),
+                HttpHeaders.readOnlyHttpHeaders(headers), body,
+                now, now + config.getTimeToLive().toNanos());
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        // No Content-Length: a fixed length stops edge compression from
+        // re-encoding the body while still advertising Content-Encoding
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(HttpHeaders.AGE,
+                Long.toString(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - cached.storedAtNanos())));
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    public static class Config {
+        private Duration timeToLive = Duration.ofSeconds(5);
+        private boolean perSubject = true;
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public boolean isPerSubject() {
+            return perSubject;
+        }
+
+        public void setPerSubject(boolean perSubject) {
+            this.perSubject = perSubject;
+        }
+    }
+}
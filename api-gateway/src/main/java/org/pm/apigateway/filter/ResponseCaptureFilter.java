@@ -0,0 +1,101 @@
+package org.pm.apigateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a copy of the response body for the ResponseCache filter.
+ *
+ * NettyWriteResponseFilter writes through the response of the exchange it
+ * was given, so a decorator installed by a route filter (which runs later)
+ * never sees the body. This filter wraps every response up front; the
+ * wrapper stays a pass-through unless the cache filter has registered a
+ * {@link Capture} on the exchange for a cache miss.
+ */
+@Component
+public class ResponseCaptureFilter implements GlobalFilter, Ordered {
+
+    public static final String CAPTURE_ATTRIBUTE = ResponseCaptureFilter.class.getName() + ".capture";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange.mutate().response(new CapturingResponse(exchange)).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    /**
+     * Request to copy the body of a cacheable response of at most
+     * {@code maxBytes} and hand it to {@code onComplete}.
+     */
+    public record Capture(long maxBytes, boolean perSubject, Consumer<byte[]> onComplete) {
+    }
+
+    private static class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+
+        CapturingResponse(ServerWebExchange exchange) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Capture capture = exchange.getAttribute(CAPTURE_ATTRIBUTE);
+            if (capture == null || !isCacheable(capture)) {
+                return super.writeWith(body);
+            }
+
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] overflow = new boolean[1];
+            Flux<? extends DataBuffer> teed = Flux.from(body)
+                    .doOnNext(buffer -> {
+                        int length = buffer.readableByteCount();
+                        if (overflow[0] || copy.size() + length > capture.maxBytes()) {
+                            overflow[0] = true;
+                            return;
+                        }
+                        byte[] bytes = new byte[length];
+                        int position = buffer.readPosition();
+                        buffer.read(bytes);
+                        buffer.readPosition(position);
+                        copy.writeBytes(bytes);
+                    })
+                    .doOnComplete(() -> {
+                        if (!overflow[0]) {
+                            capture.onComplete().accept(copy.toByteArray());
+                        }
+                    });
+            return super.writeWith(teed);
+        }
+
+        private boolean isCacheable(Capture capture) {
+            HttpHeaders headers = getDelegate().getHeaders();
+            String cacheControl = headers.getCacheControl();
+            return HttpStatusCode.valueOf(200).equals(getDelegate().getStatusCode())
+                    && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                    // Bodies are stored decoded; the edge compresses them per request
+                    && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                    && (cacheControl == null || !(cacheControl.contains("no-store")
+                        || (!capture.perSubject() && cacheControl.contains("private"))));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.pm.apigateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the write phase of every routed request: from the moment the
+ * response body starts being written until it has been flushed to the
+ * client. Together with the JWT validation timer and the Reactor Netty
+ * client's connect and response timers this splits a request's latency
+ * into its gateway-side and backend-side parts.
+ */
+@Component
+public class ResponseWriteTimingFilter implements GlobalFilter, Ordered {
+
+    private final MeterRegistry meterRegistry;
+
+    public ResponseWriteTimingFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpResponseDecorator timed = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                long start = System.nanoTime();
+                return super.writeWith(body).doFinally(signal -> record(exchange, start));
+            }
+        };
+        return chain.filter(exchange.mutate().response(timed).build());
+    }
+
+    // Wrap the response before NettyWriteResponseFilter writes to it
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private void record(ServerWebExchange exchange, long startNanos) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Timer.builder("gateway.response.write")
+                .description("Time spent writing the response body to the client")
+                .tag("routeId", route != null ? route.getId() : "unknown")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
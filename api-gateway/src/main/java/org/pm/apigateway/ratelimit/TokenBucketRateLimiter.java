@@ -0,0 +1,72 @@
+package org.pm.apigateway.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets keyed by caller, implemented as a generic cell rate
+ * algorithm (GCRA): each bucket is a single {@link AtomicLong} holding the
+ * theoretical arrival time of the next request, updated with CAS, so the hot
+ * path takes no locks and allocates nothing once a bucket exists.
+ *
+ * Limits are per gateway instance; there is no shared store such as Redis.
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long idleTimeoutNanos;
+
+    public TokenBucketRateLimiter(
+            @Value("${gateway.rate-limit.idle-timeout:5m}") Duration idleTimeout) {
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    /**
+     * Takes one token from the bucket for {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a
+     * token becomes available
+     */
+    public long tryAcquire(String key, double replenishRate, int burstCapacity) {
+        long emissionInterval = (long) (1_000_000_000L / replenishRate);
+        long burstTolerance = emissionInterval * (burstCapacity - 1L);
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+
+        while (true) {
+            long now = System.nanoTime();
+            long tat = bucket.get();
+            long start = tat == Long.MIN_VALUE || tat - now < 0 ? now : tat;
+            long waitNanos = start - burstTolerance - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(tat, start + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely and stayed unused for the
+     * idle timeout; recreating them later yields the same full bucket.
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.eviction-interval:PT1M}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(e -> {
+            long tat = e.getValue().get();
+            return tat == Long.MIN_VALUE || now - tat > idleTimeoutNanos;
+        });
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
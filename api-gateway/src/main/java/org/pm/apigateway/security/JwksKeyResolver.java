@@ -0,0 +1,115 @@
+package org.pm.apigateway.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import org.pm.apigateway.exception.UnknownSigningKeyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches auth-service's public signing keys (JWKS) by {@code kid} so tokens
+ * can be verified locally without a round-trip per request. The set is
+ * refreshed periodically and on demand when a token carries an unknown kid,
+ * with concurrent refreshes coalesced and throttled.
+ */
+@Component
+public class JwksKeyResolver extends LocatorAdapter<Key> {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyResolver.class);
+
+    private final WebClient webClient;
+    private final String jwksPath;
+    private final Duration minRefreshInterval;
+
+    private final AtomicReference<Mono<Void>> inFlight = new AtomicReference<>();
+    private volatile Map<String, Key> keys = Map.of();
+    private volatile long lastRefreshNanos;
+
+    public JwksKeyResolver(WebClient authServiceWebClient,
+                           @Value("${auth.jwks.path:/.well-known/jwks.json}") String jwksPath,
+                           @Value("${auth.jwks.min-refresh-interval:10s}") Duration minRefreshInterval) {
+        this.webClient = authServiceWebClient;
+        this.jwksPath = jwksPath;
+        this.minRefreshInterval = minRefreshInterval;
+        this.lastRefreshNanos = System.nanoTime() - minRefreshInterval.toNanos();
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        Key key = header.getKeyId() != null ? keys.get(header.getKeyId()) : null;
+        if (key == null) {
+            throw new UnknownSigningKeyException(header.getKeyId());
+        }
+        return key;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${auth.jwks.refresh-interval:PT5M}",
+            initialDelayString = "${auth.jwks.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        refresh().subscribe();
+    }
+
+    /**
+     * Fetches the key set unless a fetch is already running or one finished
+     * within the minimum refresh interval, in which case callers share that
+     * result instead of hitting auth-service again.
+     */
+    public Mono<Void> refresh() {
+        Mono<Void> running = inFlight.get();
+        if (running != null) {
+            return running;
+        }
+        if (System.nanoTime() - lastRefreshNanos < minRefreshInterval.toNanos()) {
+            return Mono.empty();
+        }
+
+        Mono<Void> fetch = webClient.get()
+                .uri(jwksPath)
+                .retrieve()
+                .bodyToMono(String.class)
+                .doOnNext(this::update)
+                .doOnError(e -> log.warn("Failed to refresh JWKS: {}", e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then()
+                .doFinally(signal -> {
+                    lastRefreshNanos = System.nanoTime();
+                    inFlight.set(null);
+                })
+                .cache();
+
+        if (inFlight.compareAndSet(null, fetch)) {
+            return fetch;
+        }
+        Mono<Void> winner = inFlight.get();
+        return winner != null ? winner : Mono.empty();
+    }
+
+    private void update(String json) {
+        JwkSet jwkSet = Jwks.setParser().ignoreUnsupported(true).build().parse(json);
+        Map<String, Key> updated = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            if (jwk.getId() != null) {
+                updated.put(jwk.getId(), jwk.toKey());
+            }
+        }
+        keys = Map.copyOf(updated);
+        log.info("Loaded {} JWT verification keys", updated.size());
+    }
+}
@@ -0,0 +1,55 @@
+package org.pm.apigateway.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import org.pm.apigateway.exception.RevokedTokenException;
+import org.pm.apigateway.exception.UnknownSigningKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies access tokens locally with the cached JWKS. The parser is
+ * immutable and thread-safe, so it is built once and shared.
+ */
+@Component
+public class JwtVerifier {
+
+    public static final String CLAIMS_ATTRIBUTE = JwtVerifier.class.getName() + ".claims";
+
+    private final JwksKeyResolver keyResolver;
+    private final TokenRevocationCache revocationCache;
+    private final JwtParser parser;
+
+    public JwtVerifier(JwksKeyResolver keyResolver, TokenRevocationCache revocationCache) {
+        this.keyResolver = keyResolver;
+        this.revocationCache = revocationCache;
+        this.parser = Jwts.parser().keyLocator(keyResolver).build();
+    }
+
+    /**
+     * Emits the token's claims, or errors with a {@link io.jsonwebtoken.JwtException}.
+     * A token signed with a key we have not seen yet triggers one JWKS refresh
+     * before it is rejected; revoked tokens are rejected after the signature
+     * check.
+     */
+    public Mono<Claims> verify(String token) {
+        return Mono.fromCallable(() -> parse(token))
+                .onErrorResume(UnknownSigningKeyException.class, e -> keyResolver.refresh()
+                        .then(Mono.fromCallable(() -> parse(token))));
+    }
+
+    private Claims parse(String token) {
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Empty or malformed JWT", e);
+        }
+        if (revocationCache.isRevoked(claims.getId())) {
+            throw new RevokedTokenException(claims.getId());
+        }
+        return claims;
+    }
+}
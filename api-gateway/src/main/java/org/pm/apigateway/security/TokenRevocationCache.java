@@ -0,0 +1,69 @@
+package org.pm.apigateway.security;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.pm.revocation.RevocationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local copy of auth-service's revoked token ids, kept current by polling
+ * the {@code /revocations} delta feed. Lookups are in-memory so revocation
+ * adds no round-trip to request validation; a revoked token may still be
+ * accepted for up to one polling interval.
+ */
+@Component
+public class TokenRevocationCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationCache.class);
+
+    private final WebClient webClient;
+    private final RevocationList revocationList;
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private volatile long since;
+
+    public TokenRevocationCache(WebClient authServiceWebClient,
+                                @Value("${auth.revocations.expected-entries:10000}") int expectedEntries) {
+        this.webClient = authServiceWebClient;
+        this.revocationList = new RevocationList(expectedEntries);
+    }
+
+    public boolean isRevoked(String jti) {
+        return revocationList.isRevoked(jti, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocations.refresh-interval:PT5S}")
+    public void poll() {
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        webClient.get()
+                .uri(uri -> uri.path("/revocations").queryParam("since", since).build())
+                .retrieve()
+                .bodyToMono(RevocationsResponse.class)
+                .doFinally(signal -> polling.set(false))
+                .subscribe(response -> {
+                    response.revoked().forEach(r -> revocationList.add(r.jti(), r.expiresAt()));
+                    since = response.asOf();
+                }, e -> log.warn("Failed to poll token revocations: {}", e.getMessage()));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocations.prune-interval:PT10M}")
+    public void prune() {
+        revocationList.prune(System.currentTimeMillis());
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record RevocationsResponse(long asOf, List<RevokedToken> revoked) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record RevokedToken(String jti, long expiresAt) {
+    }
+}
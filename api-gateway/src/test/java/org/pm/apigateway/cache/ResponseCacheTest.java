@@ -0,0 +1,59 @@
+package org.pm.apigateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondSizeBound() {
+        ResponseCache cache = new ResponseCache(DataSize.ofKilobytes(3), DataSize.ofKilobytes(1));
+
+        cache.put("a", response("route", 1000), 0);
+        cache.put("b", response("route", 1000), 0);
+        cache.get("a", System.nanoTime());
+        cache.put("c", response("route", 1000), 0);
+
+        assertThat(cache.get("a", System.nanoTime())).isNotNull();
+        assertThat(cache.get("b", System.nanoTime())).isNull();
+        assertThat(cache.get("c", System.nanoTime())).isNotNull();
+        assertThat(cache.sizeInBytes()).isLessThanOrEqualTo(DataSize.ofKilobytes(3).toBytes());
+    }
+
+    @Test
+    void rejectsOversizedAndExpiredEntries() {
+        ResponseCache cache = new ResponseCache(DataSize.ofMegabytes(1), DataSize.ofBytes(100));
+
+        assertThat(cache.put("big", response("route", 101), 0)).isFalse();
+        cache.put("small", response("route", 10), 0);
+
+        assertThat(cache.get("small", System.nanoTime() + Duration.ofMinutes(2).toNanos())).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void invalidationDropsNamespaceAndRejectsStaleFills() {
+        ResponseCache cache = new ResponseCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(1));
+        cache.put("p1", response("patients", 10), 0);
+        cache.put("a1", response("analytics", 10), 0);
+
+        long generation = cache.generation("patients");
+        assertThat(cache.invalidate("patients")).isEqualTo(1);
+
+        assertThat(cache.get("p1", System.nanoTime())).isNull();
+        assertThat(cache.get("a1", System.nanoTime())).isNotNull();
+        assertThat(cache.put("p2", response("patients", 10), generation)).isFalse();
+        assertThat(cache.put("p2", response("patients", 10), cache.generation("patients"))).isTrue();
+    }
+
+    private static CachedResponse response(String namespace, int size) {
+        long now = System.nanoTime();
+        return new CachedResponse(namespace, 200, HttpHeaders.EMPTY, new byte[size],
+                now, now + Duration.ofMinutes(1).toNanos());
+    }
+}
@@ -0,0 +1,114 @@
+package org.pm.apigateway.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoutePoolHttpClientFactoryTest {
+
+    private final Sinks.Empty<Void> release = Sinks.empty();
+    private final CountDownLatch held = new CountDownLatch(1);
+
+    // Answers only once released, so each request pins its connection
+    private final DisposableServer slowBackend = HttpServer.create().port(0)
+            .handle((request, response) -> {
+                held.countDown();
+                return response.sendString(release.asMono().then(Mono.just("slow")));
+            })
+            .bindNow();
+
+    private final DisposableServer otherBackend = HttpServer.create().port(0)
+            .handle((request, response) -> response.sendString(Mono.just("other")))
+            .bindNow();
+
+    private ConnectionProvider provider;
+
+    @AfterEach
+    void stop() {
+        release.tryEmitEmpty();
+        if (provider != null) {
+            provider.disposeLater().block(Duration.ofSeconds(5));
+        }
+        slowBackend.disposeNow();
+        otherBackend.disposeNow();
+    }
+
+    @Test
+    void saturatedBackendRejectsExcessRequestsWithoutAffectingOthers() throws InterruptedException {
+        provider = factory(route("slow", slowBackend, Map.of(
+                RoutePoolHttpClientFactory.MAX_CONNECTIONS, 1,
+                RoutePoolHttpClientFactory.PENDING_ACQUIRE_MAX_COUNT, 1)))
+                .buildConnectionProvider(properties());
+        HttpClient client = HttpClient.create(provider);
+
+        Mono<String> first = get(client, slowBackend).cache();
+        first.subscribe();
+        assertThat(held.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // One of these waits for the only connection, the other is over the queue limit
+        Mono<Object> second = get(client, slowBackend).cast(Object.class).onErrorResume(Mono::just).cache();
+        Mono<Object> third = get(client, slowBackend).cast(Object.class).onErrorResume(Mono::just).cache();
+        second.subscribe();
+        third.subscribe();
+        Object rejected = Mono.firstWithValue(second, third).block(Duration.ofSeconds(5));
+
+        // Reactor Netty's shaded PoolAcquirePendingLimitException
+        assertThat(rejected).isInstanceOfSatisfying(Throwable.class, e -> assertThat(e)
+                .hasMessageContaining("Pending acquire queue has reached its maximum size of 1"));
+        assertThat(get(client, otherBackend).block(Duration.ofSeconds(5))).isEqualTo("other");
+
+        release.tryEmitEmpty();
+        assertThat(first.block(Duration.ofSeconds(5))).isEqualTo("slow");
+    }
+
+    @Test
+    void routesWithoutPoolMetadataShareTheDefaultPool() {
+        provider = factory(route("plain", otherBackend, Map.of())).buildConnectionProvider(properties());
+
+        assertThat(provider.maxConnections()).isEqualTo(50);
+        assertThat(get(HttpClient.create(provider), otherBackend).block(Duration.ofSeconds(5))).isEqualTo("other");
+    }
+
+    private static RoutePoolHttpClientFactory factory(RouteDefinition route) {
+        GatewayProperties gatewayProperties = new GatewayProperties();
+        gatewayProperties.setRoutes(List.of(route));
+        return new RoutePoolHttpClientFactory(properties(), null, null, List.of(), gatewayProperties);
+    }
+
+    private static HttpClientProperties properties() {
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getPool().setType(HttpClientProperties.Pool.PoolType.FIXED);
+        properties.getPool().setMaxConnections(50);
+        properties.getPool().setAcquireTimeout(2000L);
+        return properties;
+    }
+
+    private static RouteDefinition route(String id, DisposableServer backend, Map<String, Object> metadata) {
+        RouteDefinition route = new RouteDefinition();
+        route.setId(id);
+        route.setUri(URI.create("http://localhost:" + backend.port()));
+        route.setMetadata(metadata);
+        return route;
+    }
+
+    private static Mono<String> get(HttpClient client, DisposableServer backend) {
+        return client.get().uri("http://localhost:" + backend.port() + "/").responseContent().aggregate().asString();
+    }
+}
@@ -0,0 +1,100 @@
+package org.pm.apigateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.pm.apigateway.cache.ResponseCache;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final Route ROUTE = Route.async()
+            .id("patient-service-route").uri(URI.create("http://patient-service:4000"))
+            .predicate(exchange -> true).build();
+
+    private final ResponseCacheGatewayFilterFactory factory = new ResponseCacheGatewayFilterFactory(
+            new ResponseCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(64)));
+    private final GatewayFilter filter = factory.apply(new ResponseCacheGatewayFilterFactory.Config());
+    private final ResponseCaptureFilter captureFilter = new ResponseCaptureFilter();
+    private final AtomicInteger backendCalls = new AtomicInteger();
+
+    @Test
+    void servesRepeatedGetsFromCache() {
+        route(exchange(MockServerHttpRequest.get("/patients")), Mono.empty()).block();
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/patients"));
+        route(second, Mono.empty()).block();
+
+        assertThat(backendCalls).hasValue(1);
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("[]");
+    }
+
+    @Test
+    void coalescesConcurrentMisses() {
+        Sinks.Empty<Void> release = Sinks.empty();
+        MockServerWebExchange leader = exchange(MockServerHttpRequest.get("/patients"));
+        MockServerWebExchange follower = exchange(MockServerHttpRequest.get("/patients"));
+
+        Mono<Void> leaderResult = route(leader, release.asMono()).cache();
+        leaderResult.subscribe();
+        Mono<Void> followerResult = route(follower, Mono.empty()).cache();
+        followerResult.subscribe();
+
+        release.tryEmitEmpty();
+        leaderResult.block();
+        followerResult.block();
+
+        assertThat(backendCalls).hasValue(1);
+        assertThat(follower.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("COALESCED");
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("[]");
+    }
+
+    @Test
+    void writesInvalidateTheRoute() {
+        route(exchange(MockServerHttpRequest.get("/patients")), Mono.empty()).block();
+        route(exchange(MockServerHttpRequest.post("/patients")), Mono.empty()).block();
+        MockServerWebExchange afterWrite = exchange(MockServerHttpRequest.get("/patients"));
+        route(afterWrite, Mono.empty()).block();
+
+        assertThat(backendCalls).hasValue(3);
+        assertThat(afterWrite.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    private GatewayFilterChain backend(Mono<Void> delay) {
+        return routed -> delay.then(Mono.defer(() -> {
+            backendCalls.incrementAndGet();
+            routed.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        }));
+    }
+
+    // Mirrors the gateway: the capture filter wraps the response before the
+    // route filters run, and the body is written afterwards through the
+    // exchange NettyWriteResponseFilter was given, not the one they see
+    private Mono<Void> route(MockServerWebExchange exchange, Mono<Void> delay) {
+        return captureFilter.filter(exchange, wrapped -> filter.filter(wrapped, backend(delay))
+                .then(Mono.defer(() -> wrapped.getResponse().isCommitted()
+                        ? Mono.empty()
+                        : wrapped.getResponse().writeWith(Mono.just(wrapped.getResponse().bufferFactory()
+                                .wrap("[]".getBytes(StandardCharsets.UTF_8)))))));
+    }
+}
@@ -0,0 +1,117 @@
+package org.pm.apigateway.filter;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes through the running gateway to a local backend, so the body is
+ * written by NettyWriteResponseFilter as in production rather than by the
+ * test. A decorator installed by the route filter alone never sees it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "auth.service.url=http://localhost:1")
+class ResponseCacheRouteTest {
+
+    // Above the 1KB compression threshold
+    private static final String BODY = "[" + "{\"name\":\"Jane Doe\"},".repeat(100) + "{}]";
+
+    private static final AtomicInteger backendCalls = new AtomicInteger();
+
+    private static final DisposableServer backend = HttpServer.create()
+            .port(0)
+            .handle((request, response) -> {
+                backendCalls.incrementAndGet();
+                return response.header(HttpHeaders.CONTENT_TYPE, "application/json")
+                        .sendString(Mono.just(BODY));
+            })
+            .bindNow();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    // The whole list is replaced, so the route needs no JWT or backend DNS
+    @DynamicPropertySource
+    static void cachedRoute(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.gateway.routes[0].id", () -> "cached-route");
+        registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.port());
+        registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/cached/**");
+        registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "StripPrefix=1");
+        registry.add("spring.cloud.gateway.routes[0].filters[1]", () -> "ResponseCache=30s,false");
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.disposeNow();
+    }
+
+    @BeforeEach
+    void resetCalls() {
+        backendCalls.set(0);
+    }
+
+    @Test
+    void secondGetIsServedFromTheCache() {
+        webTestClient.get().uri("/cached/patients").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "MISS")
+                .expectBody(String.class).isEqualTo(BODY);
+
+        webTestClient.get().uri("/cached/patients").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "HIT")
+                .expectBody(String.class).isEqualTo(BODY);
+
+        assertThat(backendCalls).hasValue(1);
+    }
+
+    // WebTestClient decompresses transparently, so this reads the raw response
+    @Test
+    void cachedBodyIsCompressedPerRequest() throws IOException {
+        webTestClient.get().uri("/cached/compressed").exchange()
+                .expectHeader().valueEquals("X-Cache", "MISS");
+
+        HttpClient client = HttpClient.create().baseUrl("http://localhost:" + port);
+        RawResponse hit = client.headers(headers -> headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .get().uri("/cached/compressed")
+                .responseSingle((response, body) -> body.asByteArray()
+                        .map(bytes -> new RawResponse(response.responseHeaders(), bytes)))
+                .block();
+
+        assertThat(hit.headers().get("X-Cache")).isEqualTo("HIT");
+        assertThat(hit.headers().get(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(hit.body())).isEqualTo(BODY);
+        assertThat(backendCalls).hasValue(1);
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private record RawResponse(io.netty.handler.codec.http.HttpHeaders headers, byte[] body) {
+    }
+}
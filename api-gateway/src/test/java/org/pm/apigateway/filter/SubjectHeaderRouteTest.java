@@ -0,0 +1,59 @@
+package org.pm.apigateway.filter;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Backends trust the subject header only because the gateway owns it, so a
+ * client-sent value must not reach a backend on a route without JWTValidation.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "auth.service.url=http://localhost:1")
+class SubjectHeaderRouteTest {
+
+    // Echoes the subject header it received, or "none"
+    private static final DisposableServer backend = HttpServer.create()
+            .port(0)
+            .handle((request, response) -> {
+                String subject = request.requestHeaders().get(JWTValidationGatewayFilterFactory.SUBJECT_HEADER);
+                return response.sendString(Mono.just(subject != null ? subject : "none"));
+            })
+            .bindNow();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void openRoute(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.gateway.routes[0].id", () -> "open-route");
+        registry.add("spring.cloud.gateway.routes[0].uri", () -> "http://localhost:" + backend.port());
+        registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/open/**");
+        registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "StripPrefix=1");
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.disposeNow();
+    }
+
+    @Test
+    void clientSuppliedSubjectIsDropped() {
+        String received = webTestClient.get().uri("/open/docs")
+                .header(JWTValidationGatewayFilterFactory.SUBJECT_HEADER, "admin@example.com")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseBody().blockFirst();
+
+        assertThat(received).isEqualTo("none");
+    }
+}
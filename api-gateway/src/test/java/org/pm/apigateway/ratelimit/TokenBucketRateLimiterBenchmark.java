@@ -0,0 +1,71 @@
+package org.pm.apigateway.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of the RateLimit filter's bucket lookup and CAS.
+ * Run from the IDE or with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.pm.apigateway.ratelimit.TokenBucketRateLimiterBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBucketRateLimiterBenchmark {
+
+    private TokenBucketRateLimiter limiter;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        limiter = new TokenBucketRateLimiter(Duration.ofMinutes(5));
+        keys = new String[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "patient-service-route|sub:user" + i + "@test.com";
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long singleThreadManyKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(keys.length)], 1_000_000, 100);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long contendedSingleKey() {
+        return limiter.tryAcquire(keys[0], 1_000_000_000, 1_000);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long contendedManyKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(keys.length)], 1_000_000, 100);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenBucketRateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,36 @@
+package org.pm.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void allowsBurstThenRejectsWithRetryAfter() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(Duration.ofMinutes(5));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("user", 1, 5)).isZero();
+        }
+
+        long waitNanos = limiter.tryAcquire("user", 1, 5);
+        assertThat(waitNanos).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(1).toNanos());
+        assertThat(limiter.tryAcquire("other", 1, 5)).isZero();
+    }
+
+    @Test
+    void evictsOnlyIdleBuckets() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(Duration.ofMillis(1));
+
+        limiter.tryAcquire("idle", 1000, 1);
+        limiter.tryAcquire("busy", 0.001, 1);
+        Thread.sleep(20);
+        limiter.evictIdle();
+
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("busy", 0.001, 1)).isPositive();
+    }
+}
@@ -2,24 +2,38 @@ package org.pm.authservice.controller;
 
 import org.pm.authservice.dto.LoginRequestDTO;
 import org.pm.authservice.dto.LoginResponseDTO;
+import org.pm.authservice.dto.RefreshRequestDTO;
+import org.pm.authservice.dto.RevocationsResponseDTO;
 import org.pm.authservice.service.AuthService;
+import org.pm.authservice.service.SigningKeyService;
+import org.pm.authservice.service.TokenRevocationService;
 import io.swagger.v3.oas.annotations.Operation;
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 public class AuthController {
 
     private final AuthService authService;
+    private final SigningKeyService signingKeyService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService,
+                          SigningKeyService signingKeyService,
+                          TokenRevocationService tokenRevocationService) {
         this.authService = authService;
+        this.signingKeyService = signingKeyService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Operation(summary = "Generate token on user login")
@@ -27,14 +41,28 @@ public class AuthController {
     public ResponseEntity<LoginResponseDTO> login(
             @RequestBody LoginRequestDTO loginRequestDTO) {
 
-        Optional<String> tokenOptional = authService.authenticate(loginRequestDTO);
+        Optional<LoginResponseDTO> tokenOptional = authService.authenticate(loginRequestDTO);
 
         if (tokenOptional.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        String token = tokenOptional.get();
-        return ResponseEntity.ok(new LoginResponseDTO(token));
+        return ResponseEntity.ok(tokenOptional.get());
+    }
+
+    @Operation(summary = "Exchange a refresh token for new tokens")
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDTO> refresh(
+            @RequestBody RefreshRequestDTO refreshRequestDTO) {
+
+        if (refreshRequestDTO.getRefreshToken() == null
+                || refreshRequestDTO.getRefreshToken().isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return authService.refresh(refreshRequestDTO.getRefreshToken())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
     }
 
     @Operation(summary = "Validate Token")
@@ -51,4 +79,36 @@ public class AuthController {
                 ? ResponseEntity.ok().build()
                 : ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Revoke the presented token and its refresh token (logout)")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody(required = false) RefreshRequestDTO refreshRequestDTO) {
+
+        if(authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        String refreshToken = refreshRequestDTO != null
+                ? refreshRequestDTO.getRefreshToken() : null;
+        return authService.revokeToken(authHeader.substring(7), refreshToken)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    @Operation(summary = "Token ids revoked since the given time, for verifiers")
+    @GetMapping("/revocations")
+    public ResponseEntity<RevocationsResponseDTO> revocations(
+            @RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(tokenRevocationService.getRevocationsSince(since));
+    }
+
+    @Operation(summary = "Public keys for verifying tokens (JWKS)")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(signingKeyService.getJwks());
+    }
+}
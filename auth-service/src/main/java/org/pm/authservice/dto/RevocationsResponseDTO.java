@@ -0,0 +1,21 @@
+package org.pm.authservice.dto;
+
+import java.util.List;
+
+public class RevocationsResponseDTO {
+    private final long asOf;
+    private final List<RevokedTokenDTO> revoked;
+
+    public RevocationsResponseDTO(long asOf, List<RevokedTokenDTO> revoked) {
+        this.asOf = asOf;
+        this.revoked = revoked;
+    }
+
+    public long getAsOf() {
+        return asOf;
+    }
+
+    public List<RevokedTokenDTO> getRevoked() {
+        return revoked;
+    }
+}
@@ -0,0 +1,19 @@
+package org.pm.authservice.dto;
+
+public class RevokedTokenDTO {
+    private final String jti;
+    private final long expiresAt;
+
+    public RevokedTokenDTO(String jti, long expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
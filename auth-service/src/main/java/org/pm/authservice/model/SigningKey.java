@@ -0,0 +1,69 @@
+package org.pm.authservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Public half of a JWT signing key. Private keys never leave the instance
+ * that generated them; only the public key is stored so every auth-service
+ * instance (and the JWKS endpoint) can verify tokens signed by its peers.
+ */
+@Entity
+@Table(name = "signing_keys", schema = "auth")
+public class SigningKey {
+    @Id
+    private String kid;
+
+    @Column(nullable = false)
+    private String algorithm;
+
+    @Column(nullable = false, length = 1024)
+    private byte[] publicKey;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public byte[] getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(byte[] publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,19 @@
+package org.pm.authservice.repository;
+
+import org.pm.authservice.model.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+    List<SigningKey> findByExpiresAtAfterOrderByCreatedAtDesc(Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from SigningKey k where k.expiresAt < :now")
+    int deleteExpired(Instant now);
+}
@@ -1,7 +1,10 @@
 package org.pm.authservice.service;
 
 import org.pm.authservice.dto.LoginRequestDTO;
+import org.pm.authservice.dto.LoginResponseDTO;
+import org.pm.authservice.model.User;
 import org.pm.authservice.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import java.util.Optional;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,29 +16,68 @@ public class AuthService {
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
 
     public AuthService(UserService userService, PasswordEncoder passwordEncoder,
-                       JwtUtil jwtUtil) {
+                       JwtUtil jwtUtil, TokenRevocationService tokenRevocationService,
+                       RefreshTokenService refreshTokenService) {
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
     }
 
-    public Optional<String> authenticate(LoginRequestDTO loginRequestDTO) {
-        Optional<String> token = userService.findByEmail(loginRequestDTO.getEmail())
+    public Optional<LoginResponseDTO> authenticate(LoginRequestDTO loginRequestDTO) {
+        Optional<LoginResponseDTO> tokens = userService.findByEmail(loginRequestDTO.getEmail())
                 .filter(u -> passwordEncoder.matches(loginRequestDTO.getPassword(),
                         u.getPassword()))
-                .map(u -> jwtUtil.generateToken(u.getEmail(), u.getRole()));
+                .map(u -> issueTokens(u, refreshTokenService.issue(u)));
 
-        return token;
+        return tokens;
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a rotated refresh
+     * token. No password check is involved, so this stays cheap.
+     */
+    public Optional<LoginResponseDTO> refresh(String refreshToken) {
+        return refreshTokenService.rotate(refreshToken)
+                .map(rotation -> issueTokens(rotation.user(), rotation.refreshToken()));
     }
 
     public boolean validateToken(String token) {
         try {
-            jwtUtil.validateToken(token);
+            Claims claims = jwtUtil.validateToken(token);
+            return !tokenRevocationService.isRevoked(claims.getId());
+        } catch (JwtException e){
+            return false;
+        }
+    }
+
+    /**
+     * Revokes a still-valid token so it is rejected before it expires, along
+     * with the refresh token family it was issued with, if one is given.
+     */
+    public boolean revokeToken(String token, String refreshToken) {
+        try {
+            Claims claims = jwtUtil.validateToken(token);
+            if (claims.getId() == null) {
+                return false;
+            }
+            tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+            if (refreshToken != null) {
+                refreshTokenService.revokeFamily(refreshToken);
+            }
             return true;
         } catch (JwtException e){
             return false;
         }
     }
-}
\ No newline at end of file
+
+    private LoginResponseDTO issueTokens(User user, String refreshToken) {
+        return new LoginResponseDTO(jwtUtil.generateToken(user.getEmail(), user.getRole()),
+                refreshToken, jwtUtil.getTokenTtl().toSeconds());
+    }
+}
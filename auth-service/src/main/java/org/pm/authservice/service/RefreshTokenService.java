@@ -0,0 +1,119 @@
+package org.pm.authservice.service;
+
+import org.pm.authservice.model.RefreshToken;
+import org.pm.authservice.model.User;
+import org.pm.authservice.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. Tokens are random 256-bit values
+ * looked up by their SHA-256 hash, so refreshing costs a couple of indexed
+ * queries rather than a BCrypt check. Presenting a token that was already
+ * rotated is treated as theft and revokes its whole family.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserService userService;
+    private final Duration refreshTokenTtl;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserService userService,
+                               @Value("${jwt.refresh-token.ttl:7d}") Duration refreshTokenTtl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userService = userService;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    /**
+     * Starts a new token family for a fresh login.
+     */
+    public String issue(User user) {
+        return issue(user.getId(), UUID.randomUUID());
+    }
+
+    @Transactional
+    public Optional<Rotation> rotate(String rawToken) {
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHash(hash(rawToken));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RefreshToken current = found.get();
+        Instant now = Instant.now();
+        if (current.isRevoked() || current.getExpiresAt().isBefore(now)) {
+            return Optional.empty();
+        }
+
+        if (refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            log.warn("Refresh token reuse detected for user {}, revoking family {}",
+                    current.getUserId(), current.getFamilyId());
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            return Optional.empty();
+        }
+
+        return userService.findById(current.getUserId())
+                .map(user -> new Rotation(user, issue(user.getId(), current.getFamilyId())));
+    }
+
+    @Transactional
+    public void revokeFamily(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.prune-interval:PT1H}")
+    public void prune() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(UUID userId, UUID familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(rawToken));
+        refreshToken.setUserId(userId);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setExpiresAt(Instant.now().plus(refreshTokenTtl));
+        refreshTokenRepository.save(refreshToken);
+
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+}
@@ -0,0 +1,177 @@
+package org.pm.authservice.service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import org.pm.authservice.model.SigningKey;
+import org.pm.authservice.repository.SigningKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns the asymmetric keys used to sign and verify JWTs.
+ *
+ * Each instance signs with a private key generated in memory and publishes
+ * the matching public key (identified by {@code kid}) to the database, so
+ * peers and external verifiers can validate tokens through the JWKS
+ * endpoint. Keys rotate on a schedule and stay published for an overlap
+ * window that covers the lifetime of the last token they signed.
+ */
+@Service
+public class SigningKeyService {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyService.class);
+
+    // Bound how often an unknown kid can force a database reload
+    private static final Duration MIN_RELOAD_INTERVAL = Duration.ofSeconds(5);
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final String algorithm;
+    private final Duration rotationPeriod;
+    private final Duration overlap;
+
+    private final Map<String, PublicKey> verificationKeys = new ConcurrentHashMap<>();
+    private volatile ActiveKey activeKey;
+    private volatile Map<String, Object> jwks = Map.of("keys", List.of());
+    private volatile Instant lastReload = Instant.EPOCH;
+
+    public SigningKeyService(SigningKeyRepository signingKeyRepository,
+                             @Value("${jwt.signing.algorithm:ES256}") String algorithm,
+                             @Value("${jwt.keys.rotation-period:7d}") Duration rotationPeriod,
+                             @Value("${jwt.keys.overlap:1d}") Duration overlap) {
+        if (!"ES256".equals(algorithm) && !"EdDSA".equals(algorithm)) {
+            throw new IllegalArgumentException(
+                    "Unsupported jwt.signing.algorithm " + algorithm + " (expected ES256 or EdDSA)");
+        }
+        this.signingKeyRepository = signingKeyRepository;
+        this.algorithm = algorithm;
+        this.rotationPeriod = rotationPeriod;
+        this.overlap = overlap;
+    }
+
+    @PostConstruct
+    public void init() {
+        rotate();
+    }
+
+    /**
+     * Rotates the local key once it has been in use for a full rotation
+     * period, drops keys whose overlap window has elapsed and picks up keys
+     * published by other instances.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.refresh-interval:PT1M}")
+    public void maintain() {
+        if (activeKey.createdAt().plus(rotationPeriod).isBefore(Instant.now())) {
+            rotate();
+        }
+        int removed = signingKeyRepository.deleteExpired(Instant.now());
+        if (removed > 0) {
+            log.info("Removed {} expired signing keys", removed);
+        }
+        reload();
+    }
+
+    public synchronized void rotate() {
+        KeyPair keyPair = "EdDSA".equals(algorithm)
+                ? Jwks.CRV.Ed25519.keyPair().build()
+                : Jwts.SIG.ES256.keyPair().build();
+        Instant now = Instant.now();
+
+        SigningKey signingKey = new SigningKey();
+        signingKey.setKid(UUID.randomUUID().toString());
+        signingKey.setAlgorithm(algorithm);
+        signingKey.setPublicKey(keyPair.getPublic().getEncoded());
+        signingKey.setCreatedAt(now);
+        signingKey.setExpiresAt(now.plus(rotationPeriod).plus(overlap));
+        signingKeyRepository.save(signingKey);
+
+        verificationKeys.put(signingKey.getKid(), keyPair.getPublic());
+        activeKey = new ActiveKey(signingKey.getKid(), keyPair.getPrivate(),
+                "EdDSA".equals(algorithm) ? Jwts.SIG.EdDSA : Jwts.SIG.ES256, now);
+        reload();
+
+        log.info("Rotated JWT signing key, new kid {} ({})", signingKey.getKid(), algorithm);
+    }
+
+    public ActiveKey getActiveKey() {
+        return activeKey;
+    }
+
+    /**
+     * Looks up the public key for {@code kid}, reloading from the database at
+     * most once every few seconds when the kid was issued by a peer we have
+     * not seen yet.
+     */
+    public PublicKey findVerificationKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        PublicKey key = verificationKeys.get(kid);
+        if (key == null && lastReload.plus(MIN_RELOAD_INTERVAL).isBefore(Instant.now())) {
+            reload();
+            key = verificationKeys.get(kid);
+        }
+        return key;
+    }
+
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    private synchronized void reload() {
+        List<SigningKey> published = signingKeyRepository
+                .findByExpiresAtAfterOrderByCreatedAtDesc(Instant.now());
+
+        List<Object> keys = new ArrayList<>(published.size());
+        Map<String, PublicKey> current = new ConcurrentHashMap<>();
+        for (SigningKey signingKey : published) {
+            PublicKey publicKey = verificationKeys.get(signingKey.getKid());
+            if (publicKey == null) {
+                publicKey = decode(signingKey);
+            }
+            current.put(signingKey.getKid(), publicKey);
+            keys.add(Jwks.builder().key(publicKey)
+                    .id(signingKey.getKid())
+                    .algorithm(signingKey.getAlgorithm())
+                    .add("use", "sig")
+                    .build());
+        }
+
+        verificationKeys.keySet().retainAll(current.keySet());
+        verificationKeys.putAll(current);
+        jwks = Map.of("keys", List.copyOf(keys));
+        lastReload = Instant.now();
+    }
+
+    private static PublicKey decode(SigningKey signingKey) {
+        try {
+            String keyFactory = "EdDSA".equals(signingKey.getAlgorithm()) ? "Ed25519" : "EC";
+            return KeyFactory.getInstance(keyFactory)
+                    .generatePublic(new X509EncodedKeySpec(signingKey.getPublicKey()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to decode signing key " + signingKey.getKid(), e);
+        }
+    }
+
+    public record ActiveKey(String kid, PrivateKey privateKey,
+                            SignatureAlgorithm algorithm, Instant createdAt) {
+    }
+}
@@ -0,0 +1,85 @@
+package org.pm.authservice.service;
+
+import org.pm.authservice.dto.RevocationsResponseDTO;
+import org.pm.authservice.dto.RevokedTokenDTO;
+import org.pm.authservice.model.RevokedToken;
+import org.pm.authservice.repository.RevokedTokenRepository;
+import org.pm.revocation.RevocationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Records revoked token ids in the database and mirrors them into an
+ * in-memory {@link RevocationList} so validation never hits the database.
+ * Revocations made on peer instances are picked up by a periodic sync, and
+ * the same delta feed is served to external verifiers such as the gateway.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Re-read a little history on every sync so rows committed out of
+    // timestamp order by concurrent instances are not skipped
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RevocationList revocationList;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${jwt.revocation.expected-entries:10000}") int expectedEntries) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revocationList = new RevocationList(expectedEntries);
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setJti(jti);
+        revokedToken.setExpiresAt(expiresAt);
+        revokedToken.setRevokedAt(Instant.now());
+        revokedTokenRepository.save(revokedToken);
+
+        revocationList.add(jti, expiresAt.toEpochMilli());
+    }
+
+    public boolean isRevoked(String jti) {
+        return revocationList.isRevoked(jti, System.currentTimeMillis());
+    }
+
+    public RevocationsResponseDTO getRevocationsSince(long sinceMillis) {
+        Instant now = Instant.now();
+        List<RevokedTokenDTO> revoked = revokedTokenRepository
+                .findByRevokedAtAfterAndExpiresAtAfter(
+                        Instant.ofEpochMilli(sinceMillis).minus(SYNC_OVERLAP), now)
+                .stream()
+                .map(t -> new RevokedTokenDTO(t.getJti(), t.getExpiresAt().toEpochMilli()))
+                .toList();
+        return new RevocationsResponseDTO(now.toEpochMilli(), revoked);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:PT5S}")
+    public void sync() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(lastSync.minus(SYNC_OVERLAP), now)
+                .forEach(t -> revocationList.add(t.getJti(), t.getExpiresAt().toEpochMilli()));
+        lastSync = now;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval:PT10M}")
+    public void prune() {
+        Instant now = Instant.now();
+        int pruned = revocationList.prune(now.toEpochMilli());
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        if (pruned > 0 || deleted > 0) {
+            log.info("Pruned {} expired revocations ({} rows deleted)", pruned, deleted);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.pm.authservice.model.User;
 import org.pm.authservice.repository.UserRepository;
 
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class UserService {
@@ -18,4 +19,8 @@ public class UserService {
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
+
+    public Optional<User> findById(UUID id) {
+        return userRepository.findById(id);
+    }
 }
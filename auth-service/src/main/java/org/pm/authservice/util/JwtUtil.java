@@ -1,49 +1,70 @@
 package org.pm.authservice.util;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.SignatureException;
+import org.pm.authservice.service.SigningKeyService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.security.Key;
-import java.util.Base64;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
-    private final Key secretKey;
+    private final SigningKeyService signingKeyService;
+    private final Duration tokenTtl;
 
-    public JwtUtil(@Value("${jwt.secret}") String secret) {
-        byte[] keyBytes = Base64.getDecoder()
-                .decode(secret.getBytes(StandardCharsets.UTF_8));
-        this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+    // Thread-safe and immutable; built once instead of on every validation
+    private final JwtParser parser;
+
+    public JwtUtil(SigningKeyService signingKeyService,
+                   @Value("${jwt.access-token.ttl:15m}") Duration tokenTtl) {
+        this.signingKeyService = signingKeyService;
+        this.tokenTtl = tokenTtl;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return signingKeyService.findVerificationKey(header.getKeyId());
+                    }
+                })
+                .build();
     }
 
     public String generateToken(String email, String role) {
+        SigningKeyService.ActiveKey key = signingKeyService.getActiveKey();
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .header().keyId(key.kid()).and()
+                .id(UUID.randomUUID().toString())
                 .subject(email)
                 .claim("role", role)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 *10)) // 10 hours
-                .signWith(secretKey)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + tokenTtl.toMillis()))
+                .signWith(key.privateKey(), key.algorithm())
                 .compact();
     }
 
-    public void validateToken(String token) {
+    public Duration getTokenTtl() {
+        return tokenTtl;
+    }
+
+    public Claims validateToken(String token) {
         try {
-            Jwts.parser().verifyWith((SecretKey) secretKey)
-                    .build()
-                    .parseSignedClaims(token);
+            return parser.parseSignedClaims(token).getPayload();
         }catch(SignatureException e){
             throw new JwtException("Invalid JWT signature");
         }
-        catch (JwtException e) {
+        catch (JwtException | IllegalArgumentException e) {
             throw new JwtException("Invalid JWT");
         }
     }
-}
\ No newline at end of file
+}
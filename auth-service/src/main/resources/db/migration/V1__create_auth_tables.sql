@@ -0,0 +1,47 @@
+-- IF NOT EXISTS adopts databases whose tables were created by Hibernate
+-- before the schema moved to migrations
+CREATE SCHEMA IF NOT EXISTS auth;
+
+CREATE TABLE IF NOT EXISTS auth.users
+(
+    id       UUID PRIMARY KEY,
+    email    VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role     VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS auth.signing_keys
+(
+    kid        VARCHAR(255) PRIMARY KEY,
+    algorithm  VARCHAR(255)                NOT NULL,
+    public_key BYTEA                       NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS auth.revoked_tokens
+(
+    jti        VARCHAR(255) PRIMARY KEY,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS auth.refresh_tokens
+(
+    id         UUID PRIMARY KEY,
+    token_hash VARCHAR(64)                 NOT NULL UNIQUE,
+    user_id    UUID                        NOT NULL,
+    family_id  UUID                        NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    used_at    TIMESTAMP(6) WITH TIME ZONE,
+    revoked    BOOLEAN                     NOT NULL
+);
+
+-- Delta feed and peer sync read by revoked_at
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON auth.revoked_tokens (revoked_at);
+
+-- Refresh token reuse revokes the whole family
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family_id ON auth.refresh_tokens (family_id);
+
+-- Expired refresh tokens are pruned in bulk; this table grows with every refresh
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON auth.refresh_tokens (expires_at);
@@ -0,0 +1,81 @@
+package org.pm.authservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pm.authservice.model.User;
+import org.pm.authservice.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rotation claims a token with a conditional update in its own
+ * transaction, so the tests run outside a test transaction as the
+ * controller does.
+ */
+@DataJpaTest
+@Import({RefreshTokenService.class, UserService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserService userService;
+
+    private User user;
+
+    @BeforeEach
+    void seededUser() {
+        user = userService.findByEmail("testuser@test.com").orElseThrow();
+    }
+
+    @Test
+    void rotationIssuesANewTokenAndRejectsTheOldOne() {
+        String first = refreshTokenService.issue(user);
+
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate(first);
+
+        assertThat(rotation).isPresent();
+        assertThat(rotation.get().user().getId()).isEqualTo(user.getId());
+        assertThat(rotation.get().refreshToken()).isNotEqualTo(first);
+        assertThat(refreshTokenService.rotate(first)).isEmpty();
+    }
+
+    @Test
+    void replayingARotatedTokenRevokesTheWholeFamily() {
+        String first = refreshTokenService.issue(user);
+        String second = refreshTokenService.rotate(first).orElseThrow().refreshToken();
+        String otherLogin = refreshTokenService.issue(user);
+
+        assertThat(refreshTokenService.rotate(first)).isEmpty();
+
+        assertThat(refreshTokenService.rotate(second)).isEmpty();
+        assertThat(refreshTokenService.rotate(otherLogin)).isPresent();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        RefreshTokenService expiring = new RefreshTokenService(refreshTokenRepository, userService,
+                Duration.ofSeconds(-1));
+        String expired = expiring.issue(user);
+
+        assertThat(refreshTokenService.rotate(expired)).isEmpty();
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertThat(refreshTokenService.rotate("not-a-token")).isEmpty();
+    }
+}
@@ -0,0 +1,76 @@
+package org.pm.authservice.service;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.pm.authservice.repository.SigningKeyRepository;
+import org.pm.authservice.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@Import({SigningKeyService.class, JwtUtil.class})
+class SigningKeyServiceTest {
+
+    @Autowired
+    private SigningKeyService signingKeyService;
+
+    @Autowired
+    private SigningKeyRepository signingKeyRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void tokensSignedBeforeRotationStillVerify() {
+        String oldKid = signingKeyService.getActiveKey().kid();
+        String before = jwtUtil.generateToken("jane@example.com", "ADMIN");
+
+        signingKeyService.rotate();
+        String newKid = signingKeyService.getActiveKey().kid();
+        String after = jwtUtil.generateToken("jane@example.com", "ADMIN");
+
+        assertThat(newKid).isNotEqualTo(oldKid);
+        assertThat(jwtUtil.validateToken(before).getSubject()).isEqualTo("jane@example.com");
+        assertThat(jwtUtil.validateToken(after).getSubject()).isEqualTo("jane@example.com");
+        assertThat(publishedKids()).contains(oldKid, newKid);
+    }
+
+    @Test
+    void verifiesTokensFromAPeerOnceItsKeyIsPublished() {
+        SigningKeyService peer = new SigningKeyService(signingKeyRepository, "ES256",
+                Duration.ofDays(7), Duration.ofDays(1));
+        peer.init();
+        String token = new JwtUtil(peer, Duration.ofMinutes(15)).generateToken("jane@example.com", "ADMIN");
+
+        signingKeyService.maintain();
+
+        assertThat(jwtUtil.validateToken(token).get("role", String.class)).isEqualTo("ADMIN");
+        assertThat(publishedKids()).contains(peer.getActiveKey().kid());
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnUnpublishedKey() {
+        SigningKeyService stranger = new SigningKeyService(mock(SigningKeyRepository.class), "ES256",
+                Duration.ofDays(7), Duration.ofDays(1));
+        stranger.init();
+        String token = new JwtUtil(stranger, Duration.ofMinutes(15)).generateToken("jane@example.com", "ADMIN");
+
+        assertThatThrownBy(() -> jwtUtil.validateToken(token)).isInstanceOf(JwtException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> publishedKids() {
+        return ((List<Map<String, Object>>) signingKeyService.getJwks().get("keys")).stream()
+                .map(key -> (String) key.get("kid"))
+                .toList();
+    }
+}
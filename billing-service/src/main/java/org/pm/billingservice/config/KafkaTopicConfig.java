@@ -0,0 +1,19 @@
+package org.pm.billingservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    // analytics-service keeps revenue per partition and merges it across its
+    // instances, so this caps how many of them share the payment events;
+    // created at startup if missing, rather than auto-created with one
+    @Bean
+    public NewTopic paymentTopic(@Value("${billing.events.partitions:6}") int partitions) {
+        return TopicBuilder.name("payment").partitions(partitions).build();
+    }
+}
@@ -0,0 +1,23 @@
+package org.pm.billingservice.config;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class PaymentExecutorConfig {
+
+    // Payment requests and provider calls run here instead of on Tomcat
+    // threads. Virtual threads cost next to nothing while they wait on the
+    // provider; how many calls may wait is bounded by the provider bulkhead,
+    // not by this executor. Tasks inherit the caller's trace context and MDC.
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService paymentExecutor() {
+        return ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor(),
+                ContextSnapshotFactory.builder().build());
+    }
+}
@@ -0,0 +1,31 @@
+package org.pm.billingservice.config;
+
+import org.pm.billingservice.provider.FakePaymentProvider;
+import org.pm.billingservice.provider.PaymentProvider;
+import org.pm.billingservice.provider.StripePaymentProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PaymentProviderConfig {
+
+    // The provider the bulkhead wraps. Chosen from a property when the
+    // context starts rather than by @Profile on the providers, which an AOT
+    // build would settle for good; both providers are lazy, so only the
+    // chosen one is created.
+    @Bean
+    @Qualifier(PaymentProvider.TARGET)
+    public PaymentProvider paymentProviderTarget(@Value("${billing.payments.provider:stripe}") String provider,
+                                                 ObjectProvider<StripePaymentProvider> stripe,
+                                                 ObjectProvider<FakePaymentProvider> fake) {
+        return switch (provider) {
+            case "stripe" -> stripe.getObject();
+            case "fake" -> fake.getObject();
+            default -> throw new IllegalArgumentException(
+                    "billing.payments.provider must be stripe or fake, not " + provider);
+        };
+    }
+}
@@ -1,18 +1,31 @@
 package org.pm.billingservice.controller;
 
-import com.stripe.exception.StripeException;
+import com.stripe.exception.EventDataObjectDeserializationException;
+import com.stripe.exception.SignatureVerificationException;
 import org.pm.billingservice.dto.CreatePaymentRequest;
 import org.pm.billingservice.dto.PaymentIntentResponse;
 import org.pm.billingservice.dto.PaymentResponse;
-import org.pm.billingservice.service.StripePaymentService;
+import org.pm.billingservice.exception.IdempotencyKeyInProgressException;
+import org.pm.billingservice.exception.IdempotencyKeyReusedException;
+import org.pm.billingservice.exception.PaymentProviderException;
+import org.pm.billingservice.exception.WebhookSecretMissingException;
+import org.pm.billingservice.provider.PaymentProvider;
+import org.pm.billingservice.service.PaymentIntentLedger;
+import org.pm.billingservice.service.PaymentStatusService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
+// Endpoints that may call the payment provider return a CompletableFuture
+// run on the payment executor, so the Tomcat thread goes back to the pool
+// while the provider is slow
 @RestController
 @RequestMapping("/payments")
 @CrossOrigin(origins = "*")
@@ -20,29 +33,61 @@ public class PaymentController {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
 
-    private final StripePaymentService stripePaymentService;
+    // Stripe's limit for idempotency keys
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
 
-    public PaymentController(StripePaymentService stripePaymentService) {
-        this.stripePaymentService = stripePaymentService;
+    private final PaymentProvider paymentProvider;
+    private final PaymentIntentLedger paymentIntentLedger;
+    private final PaymentStatusService paymentStatusService;
+    private final ExecutorService paymentExecutor;
+
+    public PaymentController(PaymentProvider paymentProvider,
+                             PaymentIntentLedger paymentIntentLedger,
+                             PaymentStatusService paymentStatusService,
+                             ExecutorService paymentExecutor) {
+        this.paymentProvider = paymentProvider;
+        this.paymentIntentLedger = paymentIntentLedger;
+        this.paymentStatusService = paymentStatusService;
+        this.paymentExecutor = paymentExecutor;
     }
 
     /**
      * Create a payment intent for a patient
      * POST /payments/create-intent
+     * Retries that send the same Idempotency-Key get the original response
      */
     @PostMapping("/create-intent")
-    public ResponseEntity<?> createPaymentIntent(@RequestBody CreatePaymentRequest request) {
+    public CompletableFuture<ResponseEntity<?>> createPaymentIntent(
+            @RequestBody CreatePaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey != null
+                && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(Map.of("error", "Idempotency-Key must be 1 to 255 characters")));
+        }
+        return CompletableFuture.supplyAsync(() -> create(request, idempotencyKey), paymentExecutor);
+    }
+
+    private ResponseEntity<?> create(CreatePaymentRequest request, String idempotencyKey) {
         try {
             log.info("Creating payment intent for patient: {}, amount: {}",
                     request.getPatientId(), request.getAmount());
 
-            PaymentIntentResponse response = stripePaymentService.createPaymentIntent(request);
+            PaymentIntentResponse response = idempotencyKey != null
+                    ? paymentIntentLedger.createPaymentIntent(idempotencyKey, request)
+                    : paymentProvider.createPaymentIntent(request, null);
+            paymentStatusService.recordCreated(response, request.getPatientId());
             return ResponseEntity.ok(response);
 
-        } catch (StripeException e) {
-            log.error("Stripe error creating payment intent: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        } catch (IdempotencyKeyReusedException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IdempotencyKeyInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(Map.of("error", e.getMessage()));
+        } catch (PaymentProviderException e) {
+            log.error("Payment provider error creating payment intent: {}", e.getMessage());
+            return providerError(e);
         } catch (Exception e) {
             log.error("Error creating payment intent: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -53,17 +98,22 @@ public class PaymentController {
     /**
      * Get payment status
      * GET /payments/{paymentIntentId}
+     * Served from the webhook-fed status store; Stripe is asked only for
+     * unknown or stale payments
      */
     @GetMapping("/{paymentIntentId}")
-    public ResponseEntity<?> getPaymentStatus(@PathVariable String paymentIntentId) {
+    public CompletableFuture<ResponseEntity<?>> getPaymentStatus(@PathVariable String paymentIntentId) {
+        return CompletableFuture.supplyAsync(() -> paymentStatus(paymentIntentId), paymentExecutor);
+    }
+
+    private ResponseEntity<?> paymentStatus(String paymentIntentId) {
         try {
-            PaymentResponse response = stripePaymentService.getPaymentStatus(paymentIntentId);
+            PaymentResponse response = paymentStatusService.getPaymentStatus(paymentIntentId);
             return ResponseEntity.ok(response);
 
-        } catch (StripeException e) {
-            log.error("Stripe error getting payment status: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", e.getMessage()));
+        } catch (PaymentProviderException e) {
+            log.error("Payment provider error getting payment status: {}", e.getMessage());
+            return providerError(e);
         }
     }
 
@@ -72,18 +122,56 @@ public class PaymentController {
      * POST /payments/{paymentIntentId}/cancel
      */
     @PostMapping("/{paymentIntentId}/cancel")
-    public ResponseEntity<?> cancelPayment(@PathVariable String paymentIntentId) {
+    public CompletableFuture<ResponseEntity<?>> cancelPayment(@PathVariable String paymentIntentId) {
+        return CompletableFuture.supplyAsync(() -> cancel(paymentIntentId), paymentExecutor);
+    }
+
+    private ResponseEntity<?> cancel(String paymentIntentId) {
         try {
-            PaymentResponse response = stripePaymentService.cancelPayment(paymentIntentId);
+            PaymentResponse response = paymentProvider.cancelPayment(paymentIntentId);
+            paymentStatusService.record(response, Instant.now());
             return ResponseEntity.ok(response);
 
-        } catch (StripeException e) {
-            log.error("Stripe error canceling payment: {}", e.getMessage());
+        } catch (PaymentProviderException e) {
+            log.error("Payment provider error canceling payment: {}", e.getMessage());
+            return providerError(e);
+        }
+    }
+
+    /**
+     * Stripe webhook
+     * POST /payments/webhook
+     * Authenticated by the Stripe-Signature header rather than a JWT
+     */
+    @PostMapping("/webhook")
+    public ResponseEntity<?> handleWebhook(@RequestBody String payload,
+                                           @RequestHeader("Stripe-Signature") String signature) {
+        try {
+            paymentStatusService.handleWebhook(payload, signature);
+            return ResponseEntity.ok().build();
+
+        } catch (SignatureVerificationException e) {
+            log.warn("Rejected Stripe webhook: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", e.getMessage()));
+                    .body(Map.of("error", "Invalid signature"));
+        } catch (EventDataObjectDeserializationException e) {
+            log.error("Unreadable Stripe webhook: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Unreadable event"));
+        } catch (WebhookSecretMissingException e) {
+            log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Webhooks are not configured"));
         }
     }
 
+    // A retryable failure means the provider is unavailable, not that the
+    // request was wrong
+    private static ResponseEntity<?> providerError(PaymentProviderException e) {
+        HttpStatus status = e.isRetryable() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(Map.of("error", e.getMessage()));
+    }
+
     /**
      * Health check
      */
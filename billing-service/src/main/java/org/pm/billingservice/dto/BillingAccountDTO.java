@@ -0,0 +1,38 @@
+package org.pm.billingservice.dto;
+
+import org.pm.billingservice.model.BillingAccount;
+import org.pm.billingservice.model.BillingAccountStatus;
+
+import java.util.UUID;
+
+/**
+ * Immutable view of an account: what the gRPC API returns and what the
+ * in-memory cache holds.
+ */
+public class BillingAccountDTO {
+    private final UUID accountId;
+    private final String patientId;
+    private final BillingAccountStatus status;
+
+    public BillingAccountDTO(UUID accountId, String patientId, BillingAccountStatus status) {
+        this.accountId = accountId;
+        this.patientId = patientId;
+        this.status = status;
+    }
+
+    public static BillingAccountDTO of(BillingAccount account) {
+        return new BillingAccountDTO(account.getId(), account.getPatientId(), account.getStatus());
+    }
+
+    public UUID getAccountId() {
+        return accountId;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public BillingAccountStatus getStatus() {
+        return status;
+    }
+}
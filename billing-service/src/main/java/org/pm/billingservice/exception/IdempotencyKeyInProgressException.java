@@ -0,0 +1,8 @@
+package org.pm.billingservice.exception;
+
+// Another instance is still creating the payment intent for this key
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String idempotencyKey) {
+        super("A request with Idempotency-Key " + idempotencyKey + " is still in progress");
+    }
+}
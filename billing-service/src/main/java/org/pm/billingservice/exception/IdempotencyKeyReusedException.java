@@ -0,0 +1,8 @@
+package org.pm.billingservice.exception;
+
+// The key was already used for a request with a different body
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("Idempotency-Key " + idempotencyKey + " was already used for a different request");
+    }
+}
@@ -0,0 +1,13 @@
+package org.pm.billingservice.exception;
+
+/**
+ * The call was not sent because the provider already has as many calls in
+ * flight as the bulkhead allows. Retryable by the client, but not retried
+ * internally: that would only add to the queue.
+ */
+public class PaymentProviderBusyException extends PaymentProviderException {
+
+    public PaymentProviderBusyException(String message) {
+        super(message, true);
+    }
+}
@@ -0,0 +1,24 @@
+package org.pm.billingservice.exception;
+
+/**
+ * A payment provider call failed. Retryable failures (connection errors,
+ * rate limits, provider-side errors) may succeed if repeated with the same
+ * idempotency key; the others are rejections of the request itself.
+ */
+public class PaymentProviderException extends Exception {
+    private final boolean retryable;
+
+    public PaymentProviderException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public PaymentProviderException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
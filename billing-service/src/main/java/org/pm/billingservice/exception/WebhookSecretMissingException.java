@@ -0,0 +1,8 @@
+package org.pm.billingservice.exception;
+
+// No signing secret is configured, so no webhook can be authenticated
+public class WebhookSecretMissingException extends RuntimeException {
+    public WebhookSecretMissingException() {
+        super("stripe.webhook.secret is not set; rejecting webhook");
+    }
+}
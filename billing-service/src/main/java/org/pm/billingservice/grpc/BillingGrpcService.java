@@ -1,34 +1,80 @@
 package org.pm.billingservice.grpc;
 
+import billing.BillingAccountRequest;
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
+import org.pm.billingservice.dto.BillingAccountDTO;
+import org.pm.billingservice.service.BillingAccountService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Optional;
+
 @GrpcService
 
 public class BillingGrpcService extends BillingServiceGrpc.BillingServiceImplBase {
     private static final Logger log = LoggerFactory.getLogger(
             BillingGrpcService.class);
 
+    private final BillingAccountService billingAccountService;
+
+    public BillingGrpcService(BillingAccountService billingAccountService) {
+        this.billingAccountService = billingAccountService;
+    }
+
     @Override
     public void createBillingAccount(BillingRequest billingRequest,
                                      StreamObserver<BillingResponse> responseObserver) {
 
         log.info("createBillingAccount request received {}", billingRequest.toString());
 
-        // Business logic - e.g save to database, perform calculates etc
+        if (billingRequest.getPatientId().isBlank()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("patientId is required").asRuntimeException());
+            return;
+        }
 
-        BillingResponse response = BillingResponse.newBuilder()
-                .setAccountId("12345")
-                .setStatus("ACTIVE")
-                .build();
+        // Completed by the account writer, so the gRPC thread is not held
+        // while the batch the request joined is written
+        billingAccountService.createAccount(billingRequest.getPatientId(),
+                        billingRequest.getName(), billingRequest.getEmail())
+                .whenComplete((account, e) -> {
+                    if (e != null) {
+                        log.error("Failed to create billing account for patient {}",
+                                billingRequest.getPatientId(), e);
+                        responseObserver.onError(Status.INTERNAL
+                                .withDescription("Failed to create billing account").asRuntimeException());
+                        return;
+                    }
+                    responseObserver.onNext(toResponse(account));
+                    responseObserver.onCompleted();
+                });
+    }
 
-        responseObserver.onNext(response);
+    @Override
+    public void getBillingAccount(BillingAccountRequest request,
+                                  StreamObserver<BillingResponse> responseObserver) {
+
+        Optional<BillingAccountDTO> account = billingAccountService.findAccount(request.getPatientId());
+        if (account.isEmpty()) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription("No billing account for patient " + request.getPatientId())
+                    .asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(toResponse(account.get()));
         responseObserver.onCompleted();
     }
 
+    private static BillingResponse toResponse(BillingAccountDTO account) {
+        return BillingResponse.newBuilder()
+                .setAccountId(account.getAccountId().toString())
+                .setStatus(account.getStatus().name())
+                .build();
+    }
+
 }
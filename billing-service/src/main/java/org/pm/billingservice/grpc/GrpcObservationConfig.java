@@ -0,0 +1,18 @@
+package org.pm.billingservice.grpc;
+
+import io.grpc.ServerInterceptor;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcServerInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+public class GrpcObservationConfig {
+
+    // Extracts the caller's trace context from the request metadata so the
+    // billing call shows up in the same trace as the patient request
+    @GrpcGlobalServerInterceptor
+    public ServerInterceptor observationGrpcServerInterceptor(ObservationRegistry observationRegistry) {
+        return new ObservationGrpcServerInterceptor(observationRegistry);
+    }
+}
@@ -0,0 +1,91 @@
+package org.pm.billingservice.kafka;
+
+import billing.events.PaymentEvent;
+import billing.events.PaymentEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.pm.billingservice.dto.PaymentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Publishes payment lifecycle events for analytics. Keyed by patient id so
+ * one patient's payments stay in order on a partition. Best effort: a
+ * failed send is logged and counted in billing.payment.events.failed, not
+ * retried, and does not fail the payment. Most failures surface only once
+ * the broker answers, after send has returned.
+ */
+@Service
+public class PaymentEventProducer {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentEventProducer.class);
+
+    static final String TOPIC = "payment";
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public PaymentEventProducer(KafkaTemplate<String, byte[]> kafkaTemplate, MeterRegistry meterRegistry,
+                                @Value("${billing.events.enabled:true}") boolean enabled) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    public void sendCreated(PaymentResponse payment, Instant occurredAt) {
+        send(PaymentEventType.PAYMENT_INTENT_CREATED, payment, occurredAt);
+    }
+
+    // Called once per payment, when its status first becomes final
+    public void sendSettled(PaymentResponse payment, Instant occurredAt) {
+        switch (payment.getStatus()) {
+            case "succeeded" -> send(PaymentEventType.PAYMENT_SUCCEEDED, payment, occurredAt);
+            case "canceled" -> send(PaymentEventType.PAYMENT_CANCELED, payment, occurredAt);
+            default -> throw new IllegalArgumentException("Not a final status: " + payment.getStatus());
+        }
+    }
+
+    private void send(PaymentEventType type, PaymentResponse payment, Instant occurredAt) {
+        if (!enabled) {
+            return;
+        }
+        PaymentEvent.Builder event = PaymentEvent.newBuilder()
+                .setPaymentIntentId(payment.getPaymentId())
+                .setEventType(type)
+                .setOccurredAtMillis(occurredAt.toEpochMilli());
+        if (payment.getPatientId() != null) {
+            event.setPatientId(payment.getPatientId());
+        }
+        if (payment.getAmount() != null) {
+            event.setAmount(payment.getAmount());
+        }
+        if (payment.getCurrency() != null) {
+            event.setCurrency(payment.getCurrency());
+        }
+        try {
+            kafkaTemplate.send(TOPIC, payment.getPatientId(), event.build().toByteArray())
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            sendFailed(type, payment, e);
+                        }
+                    });
+        } catch (Exception e) {
+            sendFailed(type, payment, e);
+        }
+    }
+
+    private void sendFailed(PaymentEventType type, PaymentResponse payment, Throwable e) {
+        log.error("Error sending {} event for {}: {}", type, payment.getPaymentId(), e.getMessage());
+        Counter.builder("billing.payment.events.failed")
+                .description("Payment events that could not be published")
+                .tag("type", type.name())
+                .register(meterRegistry)
+                .increment();
+    }
+}
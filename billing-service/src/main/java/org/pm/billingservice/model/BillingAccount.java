@@ -0,0 +1,74 @@
+package org.pm.billingservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "billing_account", schema = "billing")
+public class BillingAccount {
+    @Id
+    // Assigned in the JVM, so Hibernate can batch inserts (identity columns
+    // force one statement per row)
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String patientId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BillingAccountStatus status;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    protected BillingAccount() {
+    }
+
+    public BillingAccount(String patientId, String name, String email, Instant createdAt) {
+        this.patientId = patientId;
+        this.name = name;
+        this.email = email;
+        this.status = BillingAccountStatus.ACTIVE;
+        this.createdAt = createdAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public BillingAccountStatus getStatus() {
+        return status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
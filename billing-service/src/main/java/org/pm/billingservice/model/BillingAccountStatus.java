@@ -0,0 +1,7 @@
+package org.pm.billingservice.model;
+
+public enum BillingAccountStatus {
+    ACTIVE,
+    SUSPENDED,
+    CLOSED
+}
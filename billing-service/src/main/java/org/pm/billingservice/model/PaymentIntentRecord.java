@@ -0,0 +1,108 @@
+package org.pm.billingservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "payment_intent", schema = "billing")
+public class PaymentIntentRecord implements Persistable<String> {
+    public static final String PENDING = "pending";
+
+    @Id
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(length = 64)
+    private String patientId;
+
+    @Column(unique = true)
+    private String paymentIntentId;
+
+    private String clientSecret;
+
+    @Column(nullable = false, length = 32)
+    private String status;
+
+    private Long amount;
+
+    @Column(length = 3)
+    private String currency;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    // The key is assigned by the client, so Spring Data cannot tell a new
+    // row from its id; without this, save() would select before inserting
+    @Transient
+    private boolean isNew = true;
+
+    protected PaymentIntentRecord() {
+    }
+
+    public PaymentIntentRecord(String idempotencyKey, String requestHash, String patientId, Instant now) {
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.patientId = patientId;
+        this.status = PENDING;
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    public boolean isPending() {
+        return PENDING.equals(status);
+    }
+
+    public PaymentIntentResponse toResponse() {
+        return new PaymentIntentResponse(paymentIntentId, clientSecret, status, amount, currency);
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
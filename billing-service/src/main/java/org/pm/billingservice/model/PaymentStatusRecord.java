@@ -0,0 +1,90 @@
+package org.pm.billingservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.pm.billingservice.dto.PaymentResponse;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.Set;
+
+@Entity
+@Table(name = "payment_status", schema = "billing")
+public class PaymentStatusRecord implements Persistable<String> {
+    // Stripe never moves a payment intent out of these
+    public static final Set<String> FINAL_STATUSES = Set.of("succeeded", "canceled");
+
+    @Id
+    private String paymentIntentId;
+
+    @Column(length = 64)
+    private String patientId;
+
+    @Column(nullable = false, length = 32)
+    private String status;
+
+    private Long amount;
+
+    @Column(length = 3)
+    private String currency;
+
+    @Column(nullable = false)
+    private Instant sourceUpdatedAt;
+
+    @Column(nullable = false)
+    private Instant refreshedAt;
+
+    // The id is Stripe's, so save() must be told the row is new
+    @Transient
+    private boolean isNew = true;
+
+    protected PaymentStatusRecord() {
+    }
+
+    public PaymentStatusRecord(PaymentResponse payment, Instant sourceUpdatedAt, Instant refreshedAt) {
+        this.paymentIntentId = payment.getPaymentId();
+        this.patientId = payment.getPatientId();
+        this.status = payment.getStatus();
+        this.amount = payment.getAmount();
+        this.currency = payment.getCurrency();
+        this.sourceUpdatedAt = sourceUpdatedAt;
+        this.refreshedAt = refreshedAt;
+    }
+
+    @Override
+    public String getId() {
+        return paymentIntentId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    public boolean isFinal() {
+        return FINAL_STATUSES.contains(status);
+    }
+
+    public PaymentResponse toResponse() {
+        return new PaymentResponse(paymentIntentId, patientId, status, amount, currency, null);
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Instant getRefreshedAt() {
+        return refreshedAt;
+    }
+}
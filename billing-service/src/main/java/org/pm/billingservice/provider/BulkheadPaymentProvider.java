@@ -0,0 +1,170 @@
+package org.pm.billingservice.provider;
+
+import org.pm.billingservice.dto.CreatePaymentRequest;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.dto.PaymentResponse;
+import org.pm.billingservice.exception.PaymentProviderBusyException;
+import org.pm.billingservice.exception.PaymentProviderException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Wraps the configured provider so a slow or failing processor cannot tie
+ * up more than {@code billing.provider.max-concurrent-calls} calls. A call
+ * that finds the bulkhead full waits at most the acquire timeout and then
+ * fails as busy; each attempt is abandoned after the call timeout, and the
+ * whole call, retries included, after the deadline. Retryable failures are
+ * repeated only for calls that are safe to repeat, and only while the
+ * retry budget allows.
+ */
+@Component
+@Primary
+public class BulkheadPaymentProvider implements PaymentProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkheadPaymentProvider.class);
+
+    private final PaymentProvider target;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final long callTimeoutNanos;
+    private final long deadlineNanos;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final RetryBudget retryBudget;
+
+    public BulkheadPaymentProvider(@Qualifier(PaymentProvider.TARGET) PaymentProvider target,
+                                   ExecutorService paymentExecutor,
+                                   @Value("${billing.provider.max-concurrent-calls:20}") int maxConcurrentCalls,
+                                   @Value("${billing.provider.acquire-timeout:100ms}") Duration acquireTimeout,
+                                   @Value("${billing.provider.call-timeout:5s}") Duration callTimeout,
+                                   @Value("${billing.provider.deadline:8s}") Duration deadline,
+                                   @Value("${billing.provider.max-attempts:3}") int maxAttempts,
+                                   @Value("${billing.provider.backoff:200ms}") Duration backoff,
+                                   @Value("${billing.provider.retry-budget.ratio:0.1}") double retryRatio,
+                                   @Value("${billing.provider.retry-budget.max-tokens:10}") int maxRetryTokens) {
+        this.target = target;
+        this.executor = paymentExecutor;
+        this.permits = new Semaphore(maxConcurrentCalls);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.callTimeoutNanos = callTimeout.toNanos();
+        this.deadlineNanos = deadline.toNanos();
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+        this.retryBudget = new RetryBudget(retryRatio, maxRetryTokens);
+    }
+
+    // Without an idempotency key a repeated create could charge twice
+    @Override
+    public PaymentIntentResponse createPaymentIntent(CreatePaymentRequest request, String idempotencyKey)
+            throws PaymentProviderException {
+        return call("create", () -> target.createPaymentIntent(request, idempotencyKey), idempotencyKey != null);
+    }
+
+    @Override
+    public PaymentResponse retrievePayment(String paymentIntentId) throws PaymentProviderException {
+        return call("retrieve", () -> target.retrievePayment(paymentIntentId), true);
+    }
+
+    // A cancel that timed out may have gone through, and repeating it would
+    // then fail as a request error
+    @Override
+    public PaymentResponse cancelPayment(String paymentIntentId) throws PaymentProviderException {
+        return call("cancel", () -> target.cancelPayment(paymentIntentId), false);
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private <T> T call(String operation, ProviderCall<T> call, boolean repeatable)
+            throws PaymentProviderException {
+        retryBudget.recordCall();
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            long remaining = deadlineNanos - (System.nanoTime() - start);
+            try {
+                return attempt(call, Math.min(callTimeoutNanos, remaining));
+            } catch (PaymentProviderException e) {
+                long backoff = backoff(attempt);
+                if (!repeatable || !e.isRetryable() || e instanceof PaymentProviderBusyException
+                        || attempt >= maxAttempts
+                        || deadlineNanos - (System.nanoTime() - start) <= backoff
+                        || !retryBudget.tryRetry()) {
+                    throw e;
+                }
+                log.warn("Payment provider {} failed on attempt {}, retrying: {}", operation, attempt, e.getMessage());
+                sleep(backoff);
+            }
+        }
+    }
+
+    // The permit is taken and released on the attempt's own thread, so an
+    // attempt abandoned on timeout keeps its permit until it really ends
+    private <T> T attempt(ProviderCall<T> call, long timeoutNanos) throws PaymentProviderException {
+        Future<T> future = executor.submit(() -> {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new PaymentProviderBusyException("Payment provider is busy; try again later");
+            }
+            try {
+                return call.call();
+            } finally {
+                permits.release();
+            }
+        });
+        try {
+            return future.get(acquireTimeoutNanos + timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PaymentProviderException("Payment provider did not answer in time", true, e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PaymentProviderException("Interrupted", true, e);
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case PaymentProviderException cause -> throw cause;
+                case RuntimeException cause -> throw cause;
+                case Error cause -> throw cause;
+                default -> throw new PaymentProviderException(
+                        Objects.requireNonNullElse(e.getCause().getMessage(), e.getCause().toString()),
+                        true, e.getCause());
+            }
+        }
+    }
+
+    // Exponential with jitter, so retries from concurrent callers
+    // spread out instead of arriving together
+    private long backoff(int attempt) {
+        long max = backoffNanos << Math.min(attempt - 1, 10);
+        return ThreadLocalRandom.current().nextLong(max / 2, max + 1);
+    }
+
+    private static void sleep(long nanos) throws PaymentProviderException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProviderException("Interrupted", true, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ProviderCall<T> {
+        T call() throws PaymentProviderException;
+    }
+}
@@ -0,0 +1,169 @@
+package org.pm.billingservice.provider;
+
+import org.pm.billingservice.dto.CreatePaymentRequest;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.dto.PaymentResponse;
+import org.pm.billingservice.exception.PaymentProviderException;
+import org.pm.billingservice.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * In-process stand-in for Stripe, for load tests and offline runs. Each
+ * call is delayed by a log-normal latency fitted to the configured median
+ * and p99, is rejected once the per-second rate limit is used up (as Stripe
+ * answers 429), and fails at the configured rate after its delay. Intents
+ * live in memory and honour idempotency keys; both are bounded, so a long
+ * load test forgets its oldest intents and keys, as Stripe expires keys
+ * after a day. A fixed seed makes latencies and failures repeat from run
+ * to run.
+ */
+@Component
+@Lazy
+public class FakePaymentProvider implements PaymentProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(FakePaymentProvider.class);
+
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    private final long medianNanos;
+    private final double sigma;
+    private final double failureRate;
+    private final int rateLimit;
+    private final Random random;
+
+    private final LruCache<String, FakeIntent> intents;
+    // The first response is replayed, even after the intent has changed
+    private final LruCache<String, PaymentIntentResponse> responsesByIdempotencyKey;
+
+    private long windowStartNanos;
+    private int callsInWindow;
+
+    public FakePaymentProvider(@Value("${billing.fake-provider.latency.median:150ms}") Duration medianLatency,
+                               @Value("${billing.fake-provider.latency.p99:800ms}") Duration p99Latency,
+                               @Value("${billing.fake-provider.failure-rate:0}") double failureRate,
+                               @Value("${billing.fake-provider.rate-limit:0}") int rateLimit,
+                               @Value("${billing.fake-provider.seed:#{null}}") Long seed,
+                               @Value("${billing.fake-provider.max-intents:100000}") int maxIntents) {
+        if (p99Latency.compareTo(medianLatency) < 0) {
+            throw new IllegalArgumentException("billing.fake-provider.latency.p99 must not be below the median");
+        }
+        this.medianNanos = medianLatency.toNanos();
+        this.sigma = medianNanos > 0 ? Math.log((double) p99Latency.toNanos() / medianNanos) / Z_99 : 0;
+        this.failureRate = failureRate;
+        this.rateLimit = rateLimit;
+        this.random = seed != null ? new Random(seed) : new Random();
+        this.intents = new LruCache<>(maxIntents);
+        this.responsesByIdempotencyKey = new LruCache<>(maxIntents);
+        log.warn("Using the fake payment provider (median {}, p99 {}, failure rate {}, rate limit {}/s); "
+                + "no payments reach Stripe", medianLatency, p99Latency, failureRate, rateLimit);
+    }
+
+    @Override
+    public PaymentIntentResponse createPaymentIntent(CreatePaymentRequest request, String idempotencyKey)
+            throws PaymentProviderException {
+        simulateCall();
+        if (idempotencyKey != null) {
+            return responsesByIdempotencyKey.computeIfAbsent(idempotencyKey, key -> newIntent(request));
+        }
+        return newIntent(request);
+    }
+
+    @Override
+    public PaymentResponse retrievePayment(String paymentIntentId) throws PaymentProviderException {
+        simulateCall();
+        return find(paymentIntentId).toPaymentResponse();
+    }
+
+    @Override
+    public PaymentResponse cancelPayment(String paymentIntentId) throws PaymentProviderException {
+        simulateCall();
+        FakeIntent canceled = find(paymentIntentId).withStatus("canceled");
+        intents.put(paymentIntentId, canceled);
+        return canceled.toPaymentResponse();
+    }
+
+    Duration sampleLatency() {
+        double gaussian;
+        synchronized (random) {
+            gaussian = random.nextGaussian();
+        }
+        return Duration.ofNanos((long) (medianNanos * Math.exp(sigma * gaussian)));
+    }
+
+    private void simulateCall() throws PaymentProviderException {
+        if (!tryAcquire()) {
+            throw new PaymentProviderException("Fake provider rate limit exceeded", true);
+        }
+        try {
+            Thread.sleep(sampleLatency());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProviderException("Interrupted", true, e);
+        }
+        boolean fail;
+        synchronized (random) {
+            fail = random.nextDouble() < failureRate;
+        }
+        if (fail) {
+            throw new PaymentProviderException("Simulated provider failure", true);
+        }
+    }
+
+    // Fixed one-second windows, counted from the first call in each
+    private synchronized boolean tryAcquire() {
+        if (rateLimit <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (callsInWindow == 0 || now - windowStartNanos >= 1_000_000_000L) {
+            windowStartNanos = now;
+            callsInWindow = 0;
+        }
+        return ++callsInWindow <= rateLimit;
+    }
+
+    private PaymentIntentResponse newIntent(CreatePaymentRequest request) {
+        String id = "pi_fake_" + UUID.randomUUID().toString().replace("-", "");
+        FakeIntent intent = new FakeIntent(id, request.getPatientId(), "requires_payment_method",
+                PaymentProvider.toMinorUnits(request.getAmount()),
+                request.getCurrency() != null ? request.getCurrency().toLowerCase() : "usd");
+        intents.put(id, intent);
+        return intent.toIntentResponse();
+    }
+
+    private FakeIntent find(String paymentIntentId) throws PaymentProviderException {
+        FakeIntent intent = intents.get(paymentIntentId);
+        if (intent == null) {
+            throw noSuchIntent(paymentIntentId);
+        }
+        return intent;
+    }
+
+    private static PaymentProviderException noSuchIntent(String paymentIntentId) {
+        return new PaymentProviderException("No such payment_intent: '" + paymentIntentId + "'", false);
+    }
+
+    private record FakeIntent(String id, String patientId, String status, long amount, String currency) {
+
+        FakeIntent withStatus(String newStatus) {
+            return new FakeIntent(id, patientId, newStatus, amount, currency);
+        }
+
+        PaymentIntentResponse toIntentResponse() {
+            return new PaymentIntentResponse(id, id + "_secret_fake", status, amount, currency);
+        }
+
+        PaymentResponse toPaymentResponse() {
+            return new PaymentResponse(id, patientId, status, amount, currency, null);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.pm.billingservice.provider;
+
+import org.pm.billingservice.dto.CreatePaymentRequest;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.dto.PaymentResponse;
+import org.pm.billingservice.exception.PaymentProviderException;
+
+import java.math.BigDecimal;
+
+/**
+ * Outbound calls to the payment processor. Stripe in normal runs; with
+ * {@code billing.payments.provider=fake}, as the {@code fake-payments} profile
+ * sets, an in-process simulation instead.
+ */
+public interface PaymentProvider {
+
+    // Qualifies the real implementation, which BulkheadPaymentProvider wraps
+    String TARGET = "paymentProviderTarget";
+
+    /**
+     * Creates a payment intent for client-side confirmation. With an
+     * idempotency key, the provider returns the intent it already created
+     * for that key instead of creating another.
+     */
+    PaymentIntentResponse createPaymentIntent(CreatePaymentRequest request, String idempotencyKey)
+            throws PaymentProviderException;
+
+    PaymentResponse retrievePayment(String paymentIntentId) throws PaymentProviderException;
+
+    PaymentResponse cancelPayment(String paymentIntentId) throws PaymentProviderException;
+
+    // Amounts are sent in the currency's smallest unit (cents)
+    static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+}
@@ -0,0 +1,32 @@
+package org.pm.billingservice.provider;
+
+/**
+ * Caps retries at a fraction of calls, so a provider outage is met with at
+ * most that much extra load rather than every call being repeated. Each
+ * call earns {@code ratio} of a retry, up to {@code maxTokens} saved; each
+ * retry spends one.
+ */
+class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    RetryBudget(double ratio, int maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    synchronized void recordCall() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    synchronized boolean tryRetry() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
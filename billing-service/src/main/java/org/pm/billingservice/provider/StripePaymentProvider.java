@@ -0,0 +1,128 @@
+package org.pm.billingservice.provider;
+
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import org.pm.billingservice.dto.CreatePaymentRequest;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.dto.PaymentResponse;
+import org.pm.billingservice.exception.PaymentProviderException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// A client instance rather than the static API and global Stripe.apiKey,
+// so its settings stay local to this bean
+@Component
+@Lazy
+public class StripePaymentProvider implements PaymentProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(StripePaymentProvider.class);
+
+    private final StripeClient client;
+
+    // The SDK's own retries are off: BulkheadPaymentProvider retries within
+    // its deadline and retry budget, which the SDK knows nothing about
+    public StripePaymentProvider(@Value("${stripe.api.key:sk_test_placeholder}") String apiKey,
+                                 @Value("${stripe.api.base:https://api.stripe.com}") String apiBase,
+                                 @Value("${stripe.api.connect-timeout:2s}") Duration connectTimeout,
+                                 @Value("${stripe.api.read-timeout:4s}") Duration readTimeout) {
+        this.client = StripeClient.builder()
+                .setApiKey(apiKey)
+                .setApiBase(apiBase)
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setReadTimeout((int) readTimeout.toMillis())
+                .setMaxNetworkRetries(0)
+                .build();
+        log.info("Stripe API initialized");
+    }
+
+    @Override
+    public PaymentIntentResponse createPaymentIntent(CreatePaymentRequest request, String idempotencyKey)
+            throws PaymentProviderException {
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(PaymentProvider.toMinorUnits(request.getAmount()))
+                .setCurrency(request.getCurrency() != null ? request.getCurrency().toLowerCase() : "usd")
+                .setDescription(request.getDescription() != null ? request.getDescription() : "Medical service payment")
+                .setReceiptEmail(request.getPatientEmail())
+                .putMetadata("patient_id", request.getPatientId())
+                .putMetadata("patient_name", request.getPatientName())
+                .setAutomaticPaymentMethods(
+                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                                .setEnabled(true)
+                                .build()
+                )
+                .build();
+
+        RequestOptions options = idempotencyKey != null
+                ? RequestOptions.builder().setIdempotencyKey(idempotencyKey).build()
+                : RequestOptions.getDefault();
+
+        try {
+            PaymentIntent paymentIntent = client.paymentIntents().create(params, options);
+
+            log.info("Created PaymentIntent: {} for patient: {}", paymentIntent.getId(), request.getPatientId());
+
+            return new PaymentIntentResponse(
+                    paymentIntent.getId(),
+                    paymentIntent.getClientSecret(),
+                    paymentIntent.getStatus(),
+                    paymentIntent.getAmount(),
+                    paymentIntent.getCurrency()
+            );
+        } catch (StripeException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public PaymentResponse retrievePayment(String paymentIntentId) throws PaymentProviderException {
+        try {
+            return toPaymentResponse(client.paymentIntents().retrieve(paymentIntentId));
+        } catch (StripeException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public PaymentResponse cancelPayment(String paymentIntentId) throws PaymentProviderException {
+        try {
+            PaymentIntent canceledIntent = client.paymentIntents().cancel(paymentIntentId);
+
+            log.info("Canceled PaymentIntent: {}", paymentIntentId);
+
+            return toPaymentResponse(canceledIntent);
+        } catch (StripeException e) {
+            throw translate(e);
+        }
+    }
+
+    public static PaymentResponse toPaymentResponse(PaymentIntent paymentIntent) {
+        return new PaymentResponse(
+                paymentIntent.getId(),
+                paymentIntent.getMetadata().get("patient_id"),
+                paymentIntent.getStatus(),
+                paymentIntent.getAmount(),
+                paymentIntent.getCurrency(),
+                null // Receipt URL is available after successful payment
+        );
+    }
+
+    // Connection failures, 429s and Stripe-side 5xx are worth retrying;
+    // card, validation and auth errors will fail the same way again
+    private static PaymentProviderException translate(StripeException e) {
+        boolean retryable = e instanceof ApiConnectionException
+                || e instanceof RateLimitException
+                || e instanceof ApiException;
+        return new PaymentProviderException(e.getMessage(), retryable, e);
+    }
+}
@@ -0,0 +1,25 @@
+package org.pm.billingservice.repository;
+
+import org.pm.billingservice.dto.BillingAccountDTO;
+import org.pm.billingservice.model.BillingAccount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BillingAccountRepository extends JpaRepository<BillingAccount, UUID> {
+
+    // Backed by the unique index on patient_id
+    @Query("select new org.pm.billingservice.dto.BillingAccountDTO(a.id, a.patientId, a.status)"
+            + " from BillingAccount a where a.patientId = :patientId")
+    Optional<BillingAccountDTO> findByPatientId(String patientId);
+
+    @Query("select new org.pm.billingservice.dto.BillingAccountDTO(a.id, a.patientId, a.status)"
+            + " from BillingAccount a where a.patientId in :patientIds")
+    List<BillingAccountDTO> findByPatientIdIn(Collection<String> patientIds);
+}
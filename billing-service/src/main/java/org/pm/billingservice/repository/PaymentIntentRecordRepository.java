@@ -0,0 +1,40 @@
+package org.pm.billingservice.repository;
+
+import org.pm.billingservice.model.PaymentIntentRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface PaymentIntentRecordRepository extends JpaRepository<PaymentIntentRecord, String> {
+
+    // Stores Stripe's response on the pending row so repeats can replay it
+    @Transactional
+    @Modifying
+    @Query("update PaymentIntentRecord r set r.paymentIntentId = :paymentIntentId,"
+            + " r.clientSecret = :clientSecret, r.status = :status, r.amount = :amount,"
+            + " r.currency = :currency, r.updatedAt = :now where r.idempotencyKey = :idempotencyKey")
+    int complete(String idempotencyKey, String paymentIntentId, String clientSecret,
+                 String status, Long amount, String currency, Instant now);
+
+    /**
+     * Takes over a row left pending since before {@code staleBefore}, e.g.
+     * by an instance that died mid-call; returns 0 if it is still fresh or
+     * another caller took it over first.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PaymentIntentRecord r set r.updatedAt = :now where r.idempotencyKey = :idempotencyKey"
+            + " and r.status = '" + PaymentIntentRecord.PENDING + "' and r.updatedAt < :staleBefore")
+    int claimStale(String idempotencyKey, Instant now, Instant staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("update PaymentIntentRecord r set r.status = :status, r.updatedAt = :now"
+            + " where r.paymentIntentId = :paymentIntentId")
+    int updateStatus(String paymentIntentId, String status, Instant now);
+}
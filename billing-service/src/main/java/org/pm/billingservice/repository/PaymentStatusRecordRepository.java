@@ -0,0 +1,28 @@
+package org.pm.billingservice.repository;
+
+import org.pm.billingservice.model.PaymentStatusRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+
+@Repository
+public interface PaymentStatusRecordRepository extends JpaRepository<PaymentStatusRecord, String> {
+
+    /**
+     * Applies the status unless the stored one is newer or final; returns 0
+     * if the row is missing or the update was skipped.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PaymentStatusRecord r set r.status = :status, r.amount = :amount, r.currency = :currency,"
+            + " r.sourceUpdatedAt = :sourceUpdatedAt, r.refreshedAt = :refreshedAt"
+            + " where r.paymentIntentId = :paymentIntentId and r.sourceUpdatedAt <= :sourceUpdatedAt"
+            + " and r.status not in :finalStatuses")
+    int applyIfNewer(String paymentIntentId, String status, Long amount, String currency,
+                     Instant sourceUpdatedAt, Instant refreshedAt, Collection<String> finalStatuses);
+}
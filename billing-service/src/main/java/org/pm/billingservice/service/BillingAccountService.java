@@ -0,0 +1,58 @@
+package org.pm.billingservice.service;
+
+import org.pm.billingservice.dto.BillingAccountDTO;
+import org.pm.billingservice.repository.BillingAccountRepository;
+import org.pm.billingservice.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Billing accounts keyed by patient id. Accounts found or created here are
+ * kept in a bounded in-memory cache, so retried creates and status lookups
+ * for recent patients do not touch the database. Only this service changes
+ * accounts, so a cached entry is stale only if another instance changes it.
+ */
+@Service
+public class BillingAccountService {
+
+    private final BillingAccountRepository repository;
+    private final BillingAccountWriter writer;
+    private final LruCache<String, BillingAccountDTO> cache;
+
+    public BillingAccountService(BillingAccountRepository repository,
+                                 BillingAccountWriter writer,
+                                 @Value("${billing.accounts.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.writer = writer;
+        this.cache = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * Returns the patient's account, creating it on first call; repeated
+     * calls for the same patient return the same account.
+     */
+    public CompletableFuture<BillingAccountDTO> createAccount(String patientId, String name, String email) {
+        BillingAccountDTO cached = cache.get(patientId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return writer.submit(patientId, name, email).thenApply(this::remember);
+    }
+
+    public Optional<BillingAccountDTO> findAccount(String patientId) {
+        BillingAccountDTO cached = cache.get(patientId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Misses are not cached: the account may be created moments later
+        return repository.findByPatientId(patientId).map(this::remember);
+    }
+
+    private BillingAccountDTO remember(BillingAccountDTO account) {
+        cache.put(account.getPatientId(), account);
+        return account;
+    }
+}
@@ -0,0 +1,198 @@
+package org.pm.billingservice.service;
+
+import org.pm.billingservice.dto.BillingAccountDTO;
+import org.pm.billingservice.model.BillingAccount;
+import org.pm.billingservice.repository.BillingAccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Creates accounts on a single writer thread that takes whatever requests
+ * have queued up since its last write and handles them as one batch: one
+ * lookup of the patients that already have an account and one batched
+ * insert for the rest, in a single transaction. An idle writer takes a
+ * lone request straight away, so batching adds no latency at low load.
+ */
+@Component
+public class BillingAccountWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingAccountWriter.class);
+
+    private final BillingAccountRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final BlockingQueue<PendingAccount> queue = new LinkedBlockingQueue<>();
+    private volatile Thread worker;
+    private boolean stopped;
+
+    public BillingAccountWriter(BillingAccountRepository repository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${billing.accounts.batch-size:50}") int batchSize) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queues the account for creation; the result is the patient's existing
+     * account if one was created before. Fails straight away once the writer
+     * has been stopped, as nothing would take the request any more.
+     */
+    public CompletableFuture<BillingAccountDTO> submit(String patientId, String name, String email) {
+        PendingAccount pending = new PendingAccount(patientId, name, email, new CompletableFuture<>());
+        synchronized (this) {
+            if (stopped) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Billing account writer is stopped"));
+            }
+            queue.add(pending);
+        }
+        return pending.result();
+    }
+
+    /**
+     * Creates the accounts that do not exist yet and completes every request
+     * in the batch, including repeats of the same patient.
+     */
+    void write(List<PendingAccount> batch) {
+        try {
+            complete(batch, transactionTemplate.execute(status -> createMissing(batch)));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created one of these accounts between the
+            // lookup and the insert; retry one by one so the rest still land
+            batch.forEach(this::writeOne);
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    // Never throws: whatever goes wrong fails this request only
+    private void writeOne(PendingAccount pending) {
+        try {
+            complete(List.of(pending), transactionTemplate.execute(status -> createMissing(List.of(pending))));
+        } catch (DataIntegrityViolationException e) {
+            // The winner's account if this patient lost a race; otherwise the
+            // row itself was refused
+            try {
+                repository.findByPatientId(pending.patientId()).ifPresentOrElse(
+                        account -> pending.result().complete(account),
+                        () -> pending.result().completeExceptionally(e));
+            } catch (RuntimeException lookup) {
+                pending.result().completeExceptionally(lookup);
+            }
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private Map<String, BillingAccountDTO> createMissing(List<PendingAccount> batch) {
+        Map<String, PendingAccount> byPatient = new LinkedHashMap<>();
+        batch.forEach(pending -> byPatient.putIfAbsent(pending.patientId(), pending));
+
+        Map<String, BillingAccountDTO> accounts = new HashMap<>();
+        repository.findByPatientIdIn(byPatient.keySet())
+                .forEach(account -> accounts.put(account.getPatientId(), account));
+
+        Instant now = Instant.now();
+        List<BillingAccount> created = byPatient.values().stream()
+                .filter(pending -> !accounts.containsKey(pending.patientId()))
+                .map(pending -> new BillingAccount(pending.patientId(), pending.name(), pending.email(), now))
+                .toList();
+        repository.saveAll(created);
+        repository.flush();
+
+        created.forEach(account -> accounts.put(account.getPatientId(), BillingAccountDTO.of(account)));
+        return accounts;
+    }
+
+    private static void complete(List<PendingAccount> batch, Map<String, BillingAccountDTO> accounts) {
+        batch.forEach(pending -> pending.result().complete(accounts.get(pending.patientId())));
+    }
+
+    private void run() {
+        List<PendingAccount> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            writeAll(batch);
+        }
+        // Flush what was accepted before shutdown
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeAll(batch);
+        }
+    }
+
+    // Whatever a batch throws fails that batch only; this thread is the
+    // only writer, so it must outlive every failure
+    private void writeAll(List<PendingAccount> batch) {
+        try {
+            write(batch);
+        } catch (Throwable e) {
+            log.error("Failed to write {} billing accounts", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        } finally {
+            batch.clear();
+        }
+    }
+
+    @Override
+    public void start() {
+        Thread thread = new Thread(this::run, "billing-account-writer");
+        thread.setDaemon(true);
+        thread.start();
+        worker = thread;
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            stopped = true;
+        }
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                log.warn("Billing account writer did not finish within 5s");
+            }
+        }
+        // Left behind if the writer never started or gave up above
+        PendingAccount pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new IllegalStateException("Billing account writer is stopped"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return worker != null;
+    }
+
+    record PendingAccount(String patientId, String name, String email,
+                          CompletableFuture<BillingAccountDTO> result) {
+    }
+}
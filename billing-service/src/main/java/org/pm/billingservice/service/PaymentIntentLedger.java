@@ -0,0 +1,152 @@
+package org.pm.billingservice.service;
+
+import org.pm.billingservice.dto.CreatePaymentRequest;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.exception.IdempotencyKeyInProgressException;
+import org.pm.billingservice.exception.IdempotencyKeyReusedException;
+import org.pm.billingservice.exception.PaymentProviderException;
+import org.pm.billingservice.model.PaymentIntentRecord;
+import org.pm.billingservice.provider.PaymentProvider;
+import org.pm.billingservice.repository.PaymentIntentRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Makes payment intent creation idempotent per client-supplied key. Each
+ * key gets a ledger row before Stripe is called; repeats replay the stored
+ * response, and concurrent repeats on this instance wait for the call
+ * already in flight instead of making their own. The key is also sent to
+ * the provider, so a retry after a lost response cannot create a second
+ * intent.
+ */
+@Service
+public class PaymentIntentLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentIntentLedger.class);
+
+    private final PaymentIntentRecordRepository repository;
+    private final PaymentProvider paymentProvider;
+    private final Duration inProgressTimeout;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public PaymentIntentLedger(PaymentIntentRecordRepository repository,
+                               PaymentProvider paymentProvider,
+                               @Value("${billing.idempotency.in-progress-timeout:PT1M}") Duration inProgressTimeout) {
+        this.repository = repository;
+        this.paymentProvider = paymentProvider;
+        this.inProgressTimeout = inProgressTimeout;
+    }
+
+    public PaymentIntentResponse createPaymentIntent(String idempotencyKey, CreatePaymentRequest request)
+            throws PaymentProviderException {
+        String requestHash = hash(request);
+        InFlight call = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(idempotencyKey, call);
+        if (running != null) {
+            if (!running.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            return await(running.result());
+        }
+
+        try {
+            PaymentIntentResponse response = execute(idempotencyKey, requestHash, request);
+            call.result().complete(response);
+            return response;
+        } catch (PaymentProviderException | RuntimeException e) {
+            call.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, call);
+        }
+    }
+
+    // Keeps the replayed status current when the intent is read or canceled
+    public void recordStatus(String paymentIntentId, String status) {
+        repository.updateStatus(paymentIntentId, status, Instant.now());
+    }
+
+    private PaymentIntentResponse execute(String idempotencyKey, String requestHash, CreatePaymentRequest request)
+            throws PaymentProviderException {
+        Instant now = Instant.now();
+        try {
+            repository.saveAndFlush(new PaymentIntentRecord(idempotencyKey, requestHash, request.getPatientId(), now));
+        } catch (DataIntegrityViolationException e) {
+            PaymentIntentRecord existing = repository.findById(idempotencyKey).orElseThrow(() -> e);
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            if (!existing.isPending()) {
+                return existing.toResponse();
+            }
+            if (repository.claimStale(idempotencyKey, now, now.minus(inProgressTimeout)) == 0) {
+                throw new IdempotencyKeyInProgressException(idempotencyKey);
+            }
+            log.warn("Taking over payment intent request {} left pending since {}",
+                    idempotencyKey, existing.getUpdatedAt());
+        }
+
+        PaymentIntentResponse response;
+        try {
+            response = paymentProvider.createPaymentIntent(request, idempotencyKey);
+        } catch (PaymentProviderException | RuntimeException e) {
+            // Nothing to replay, so let the client retry; the provider has
+            // seen the key and will not create a second intent for it
+            repository.deleteById(idempotencyKey);
+            throw e;
+        }
+        repository.complete(idempotencyKey, response.getPaymentIntentId(), response.getClientSecret(),
+                response.getStatus(), response.getAmount(), response.getCurrency(), Instant.now());
+        return response;
+    }
+
+    private static PaymentIntentResponse await(CompletableFuture<PaymentIntentResponse> result)
+            throws PaymentProviderException {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof PaymentProviderException providerException) {
+                throw providerException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    // Amount is compared by value, so 10.5 and 10.50 are the same request
+    static String hash(CreatePaymentRequest request) {
+        String canonical = String.join("\n",
+                Objects.toString(request.getPatientId(), ""),
+                Objects.toString(request.getPatientName(), ""),
+                Objects.toString(request.getPatientEmail(), ""),
+                request.getAmount() != null ? request.getAmount().stripTrailingZeros().toPlainString() : "",
+                Objects.toString(request.getCurrency(), "").toLowerCase(),
+                Objects.toString(request.getDescription(), ""));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<PaymentIntentResponse> result) {
+    }
+}
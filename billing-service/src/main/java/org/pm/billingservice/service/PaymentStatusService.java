@@ -0,0 +1,178 @@
+package org.pm.billingservice.service;
+
+import com.stripe.exception.EventDataObjectDeserializationException;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import com.stripe.model.EventDataObjectDeserializer;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.Webhook;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.dto.PaymentResponse;
+import org.pm.billingservice.exception.PaymentProviderException;
+import org.pm.billingservice.exception.WebhookSecretMissingException;
+import org.pm.billingservice.kafka.PaymentEventProducer;
+import org.pm.billingservice.model.PaymentStatusRecord;
+import org.pm.billingservice.provider.PaymentProvider;
+import org.pm.billingservice.provider.StripePaymentProvider;
+import org.pm.billingservice.repository.PaymentStatusRecordRepository;
+import org.pm.billingservice.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Serves payment status from a local store that Stripe keeps current
+ * through webhooks. Stripe is only called for a payment the store has
+ * never seen, or one still in progress whose status has not been confirmed
+ * within the maximum age, in case a webhook was lost. Settled payments
+ * never change again, so they are also kept in a bounded in-memory cache;
+ * in-progress ones are read from the store so every instance sees a
+ * webhook that landed on another.
+ * <p>
+ * Because every status change passes through here, this is also where
+ * payment events are published: created when a payment is first stored,
+ * and succeeded or canceled when its status first becomes final.
+ */
+@Service
+public class PaymentStatusService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentStatusService.class);
+
+    private final PaymentStatusRecordRepository repository;
+    private final PaymentProvider paymentProvider;
+    private final PaymentIntentLedger paymentIntentLedger;
+    private final PaymentEventProducer paymentEventProducer;
+    private final String webhookSecret;
+    private final Duration maxAge;
+    private final LruCache<String, PaymentResponse> settled;
+
+    public PaymentStatusService(PaymentStatusRecordRepository repository,
+                                PaymentProvider paymentProvider,
+                                PaymentIntentLedger paymentIntentLedger,
+                                PaymentEventProducer paymentEventProducer,
+                                @Value("${stripe.webhook.secret:}") String webhookSecret,
+                                @Value("${billing.payments.status-max-age:PT5M}") Duration maxAge,
+                                @Value("${billing.payments.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.paymentProvider = paymentProvider;
+        this.paymentIntentLedger = paymentIntentLedger;
+        this.paymentEventProducer = paymentEventProducer;
+        this.webhookSecret = webhookSecret;
+        if (webhookSecret.isBlank()) {
+            log.warn("stripe.webhook.secret is not set; Stripe webhooks will be rejected");
+        }
+        this.maxAge = maxAge;
+        this.settled = new LruCache<>(cacheSize);
+    }
+
+    public PaymentResponse getPaymentStatus(String paymentIntentId) throws PaymentProviderException {
+        PaymentResponse cached = settled.get(paymentIntentId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Instant now = Instant.now();
+        PaymentStatusRecord stored = repository.findById(paymentIntentId).orElse(null);
+        if (stored != null && stored.isFinal()) {
+            settled.put(paymentIntentId, stored.toResponse());
+            return stored.toResponse();
+        }
+        if (stored != null && stored.getRefreshedAt().isAfter(now.minus(maxAge))) {
+            return stored.toResponse();
+        }
+
+        PaymentResponse fetched = paymentProvider.retrievePayment(paymentIntentId);
+        record(fetched, observedAt(now));
+        return fetched;
+    }
+
+    /**
+     * Verifies the Stripe-Signature header and applies payment intent
+     * events; other event types are acknowledged and ignored. Without a
+     * signing secret every webhook is refused, so Stripe keeps retrying
+     * until one is configured.
+     */
+    public void handleWebhook(String payload, String signature)
+            throws SignatureVerificationException, EventDataObjectDeserializationException {
+        if (webhookSecret.isBlank()) {
+            throw new WebhookSecretMissingException();
+        }
+        Event event = Webhook.constructEvent(payload, signature, webhookSecret);
+        if (!event.getType().startsWith("payment_intent.")) {
+            return;
+        }
+        // Events rendered for another API version do not deserialize safely;
+        // the fields read here are stable across versions
+        EventDataObjectDeserializer data = event.getDataObjectDeserializer();
+        PaymentIntent paymentIntent = (PaymentIntent) (data.getObject().isPresent()
+                ? data.getObject().get()
+                : data.deserializeUnsafe());
+        log.info("Webhook {} for PaymentIntent {}: {}", event.getType(), paymentIntent.getId(),
+                paymentIntent.getStatus());
+        record(StripePaymentProvider.toPaymentResponse(paymentIntent), Instant.ofEpochSecond(event.getCreated()));
+    }
+
+    // Lets a status read right after checkout be answered locally
+    public void recordCreated(PaymentIntentResponse intent, String patientId) {
+        if (repository.existsById(intent.getPaymentIntentId())) {
+            return;
+        }
+        Instant now = Instant.now();
+        PaymentResponse payment = new PaymentResponse(intent.getPaymentIntentId(), patientId, intent.getStatus(),
+                intent.getAmount(), intent.getCurrency(), null);
+        try {
+            repository.saveAndFlush(new PaymentStatusRecord(payment, observedAt(now), now));
+        } catch (DataIntegrityViolationException e) {
+            // A webhook got there first and is at least as new
+            return;
+        }
+        paymentEventProducer.sendCreated(payment, now);
+    }
+
+    // Event timestamps have whole-second resolution, so a status observed
+    // locally is dated to the start of its second: an event from that
+    // same second may be the newer one and must still apply
+    private static Instant observedAt(Instant now) {
+        return now.truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /**
+     * Stores the status as of {@code sourceUpdatedAt}, unless the store
+     * already holds a newer or final one.
+     */
+    public void record(PaymentResponse payment, Instant sourceUpdatedAt) {
+        Instant now = Instant.now();
+        boolean applied = apply(payment, sourceUpdatedAt, now) > 0;
+        boolean inserted = false;
+        if (!applied && !repository.existsById(payment.getPaymentId())) {
+            try {
+                repository.saveAndFlush(new PaymentStatusRecord(payment, sourceUpdatedAt, now));
+                applied = inserted = true;
+            } catch (DataIntegrityViolationException e) {
+                // Stored concurrently by another webhook or instance
+                applied = apply(payment, sourceUpdatedAt, now) > 0;
+            }
+        }
+        if (inserted) {
+            paymentEventProducer.sendCreated(payment, sourceUpdatedAt);
+        }
+        if (applied) {
+            paymentIntentLedger.recordStatus(payment.getPaymentId(), payment.getStatus());
+            // A final status is never overwritten, so this happens once
+            if (PaymentStatusRecord.FINAL_STATUSES.contains(payment.getStatus())) {
+                paymentEventProducer.sendSettled(payment, sourceUpdatedAt);
+            }
+        }
+    }
+
+    private int apply(PaymentResponse payment, Instant sourceUpdatedAt, Instant now) {
+        return repository.applyIfNewer(payment.getPaymentId(), payment.getStatus(), payment.getAmount(),
+                payment.getCurrency(), sourceUpdatedAt, now, PaymentStatusRecord.FINAL_STATUSES);
+    }
+}
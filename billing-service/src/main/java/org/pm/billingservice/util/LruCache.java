@@ -0,0 +1,40 @@
+package org.pm.billingservice.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded map that evicts the least recently used entry once full. Access
+ * is synchronized; lookups are cheap enough that one lock does not contend.
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    public LruCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    // The mapping runs under the lock, so concurrent callers share one value
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> mapping) {
+        return entries.computeIfAbsent(key, mapping);
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+}
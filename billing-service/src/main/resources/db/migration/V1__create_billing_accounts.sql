@@ -0,0 +1,13 @@
+CREATE SCHEMA IF NOT EXISTS billing;
+
+-- One account per patient; the unique patient_id is what makes account
+-- creation idempotent across retries and service instances
+CREATE TABLE IF NOT EXISTS billing.billing_account
+(
+    id         UUID PRIMARY KEY,
+    patient_id VARCHAR(64)                 NOT NULL UNIQUE,
+    name       VARCHAR(255)                NOT NULL,
+    email      VARCHAR(255)                NOT NULL,
+    status     VARCHAR(16)                 NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,17 @@
+-- Ledger of payment intents created through POST /payments/create-intent,
+-- keyed by the client's Idempotency-Key. A row is written before Stripe is
+-- called (status 'pending') and completed with Stripe's response, which is
+-- replayed for repeats of the same key
+CREATE TABLE IF NOT EXISTS billing.payment_intent
+(
+    idempotency_key   VARCHAR(255)                PRIMARY KEY,
+    request_hash      VARCHAR(64)                 NOT NULL,
+    patient_id        VARCHAR(64),
+    payment_intent_id VARCHAR(255) UNIQUE,
+    client_secret     VARCHAR(255),
+    status            VARCHAR(32)                 NOT NULL,
+    amount            BIGINT,
+    currency          VARCHAR(3),
+    created_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
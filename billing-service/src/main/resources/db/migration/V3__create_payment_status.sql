@@ -0,0 +1,13 @@
+-- Last known status of each payment intent, kept current by Stripe webhooks
+-- so status reads do not call Stripe. source_updated_at orders updates from
+-- out-of-order webhooks; refreshed_at is when the row was last confirmed
+CREATE TABLE IF NOT EXISTS billing.payment_status
+(
+    payment_intent_id VARCHAR(255)                PRIMARY KEY,
+    patient_id        VARCHAR(64),
+    status            VARCHAR(32)                 NOT NULL,
+    amount            BIGINT,
+    currency          VARCHAR(3),
+    source_updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    refreshed_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,97 @@
+package org.pm.billingservice;
+
+import com.stripe.Stripe;
+import com.stripe.net.Webhook;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Stripe API: serves payment intents over HTTP so the
+ * real SDK can be pointed at it through {@code stripe.api.base}, counts the
+ * calls it receives, and builds signed webhook events.
+ */
+public class FakeStripe implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<String, String> intents = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    public FakeStripe() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/payment_intents/", this::retrievePaymentIntent);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void putPaymentIntent(String id, String status) {
+        intents.put(id, paymentIntentJson(id, status));
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    /**
+     * A {@code payment_intent.*} event as Stripe would post it to the
+     * webhook endpoint.
+     */
+    public static String event(String type, String paymentIntentId, String status, long createdEpochSeconds) {
+        return """
+                {"id": "evt_%s", "object": "event", "type": "%s", "created": %d, "api_version": "%s",
+                 "data": {"object": %s}}""".formatted(paymentIntentId + createdEpochSeconds, type,
+                createdEpochSeconds, Stripe.API_VERSION, paymentIntentJson(paymentIntentId, status));
+    }
+
+    // The Stripe-Signature header for the payload, signed now with the secret
+    public static String sign(String payload, String secret) {
+        long timestamp = System.currentTimeMillis() / 1000;
+        try {
+            String signature = Webhook.Util.computeHmacSha256(secret, timestamp + "." + payload);
+            return "t=" + timestamp + ",v1=" + signature;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String paymentIntentJson(String id, String status) {
+        return """
+                {"id": "%s", "object": "payment_intent", "status": "%s", "amount": 10000, "currency": "usd",
+                 "metadata": {"patient_id": "123e4567-e89b-12d3-a456-426614174000"}}""".formatted(id, status);
+    }
+
+    private void retrievePaymentIntent(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String id = exchange.getRequestURI().getPath().substring("/v1/payment_intents/".length());
+        String body = intents.get(id);
+        int status = body != null ? 200 : 404;
+        if (body == null) {
+            body = """
+                    {"error": {"type": "invalid_request_error", "code": "resource_missing",
+                     "message": "No such payment_intent: '%s'"}}""".formatted(id);
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
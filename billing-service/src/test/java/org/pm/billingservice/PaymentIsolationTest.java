@@ -0,0 +1,155 @@
+package org.pm.billingservice;
+
+import billing.BillingRequest;
+import billing.BillingServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.provider.FakePaymentProvider;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Floods create-intent with more requests than Tomcat has threads while the
+ * provider holds every call until the test releases it, and checks that
+ * gRPC account calls and the health endpoint still answer within their
+ * deadlines. The call timeout is far above anything the test waits for, so
+ * only the bulkhead limit decides which payments are turned away.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=4",
+        "billing.provider.max-concurrent-calls=5",
+        "billing.provider.call-timeout=1h",
+        "billing.provider.deadline=1h",
+        "billing.events.enabled=false"
+})
+@ActiveProfiles("fake-payments")
+class PaymentIsolationTest {
+
+    private static final int REQUESTS = 40;
+    private static final int MAX_CONCURRENT_CALLS = 5;
+    private static final Duration DEADLINE = Duration.ofSeconds(5);
+
+    private static int grpcPort;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient http = HttpClient.newBuilder().executor(Runnable::run).build();
+    private final CountDownLatch providerCalls = new CountDownLatch(MAX_CONCURRENT_CALLS);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ManagedChannel channel;
+
+    @MockitoBean
+    private FakePaymentProvider paymentProvider;
+
+    // A free port rather than 9001, which a cached context may hold
+    @DynamicPropertySource
+    static void grpcPort(DynamicPropertyRegistry registry) throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            grpcPort = socket.getLocalPort();
+        }
+        registry.add("grpc.server.port", () -> grpcPort);
+    }
+
+    @BeforeEach
+    void connect() throws Exception {
+        when(paymentProvider.createPaymentIntent(any(), any())).thenAnswer(invocation -> {
+            providerCalls.countDown();
+            release.await();
+            return new PaymentIntentResponse("pi_" + UUID.randomUUID().toString().replace("-", ""),
+                    "secret", "requires_payment_method", 12550L, "usd");
+        });
+        channel = ManagedChannelBuilder.forAddress("localhost", grpcPort).usePlaintext().build();
+    }
+
+    @AfterEach
+    void close() {
+        release.countDown();
+        channel.shutdownNow();
+        http.close();
+    }
+
+    @Test
+    void slowProviderDoesNotDelayGrpcOrOtherRequests() throws Exception {
+        // Connect both paths first so the deadlines below cover contention only
+        createAccount();
+        health();
+
+        List<CompletableFuture<HttpResponse<String>>> payments = IntStream.range(0, REQUESTS)
+                .mapToObj(i -> http.sendAsync(createIntent(), HttpResponse.BodyHandlers.ofString()))
+                .toList();
+        CountDownLatch answered = new CountDownLatch(REQUESTS - MAX_CONCURRENT_CALLS);
+        payments.forEach(payment -> payment.thenRun(answered::countDown));
+
+        // The bulkhead is full and every other payment has been turned away
+        // instead of queueing behind the held calls
+        assertThat(providerCalls.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(answered.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(payments).filteredOn(CompletableFuture::isDone)
+                .hasSize(REQUESTS - MAX_CONCURRENT_CALLS)
+                .allSatisfy(p -> assertThat(p.join().statusCode()).isEqualTo(503));
+
+        // Either would fail past its deadline if the held calls starved it
+        createAccount();
+        assertThat(health().statusCode()).isEqualTo(200);
+
+        release.countDown();
+        assertThat(payments).filteredOn(p -> p.join().statusCode() == 200).hasSize(MAX_CONCURRENT_CALLS);
+        verify(paymentProvider, times(MAX_CONCURRENT_CALLS)).createPaymentIntent(any(), any());
+    }
+
+    private void createAccount() {
+        BillingServiceGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(DEADLINE.toMillis(), TimeUnit.MILLISECONDS)
+                .createBillingAccount(BillingRequest.newBuilder()
+                        .setPatientId(UUID.randomUUID().toString())
+                        .setName("Jane Doe")
+                        .setEmail("jane@example.com")
+                        .build());
+    }
+
+    private HttpResponse<String> health() throws Exception {
+        return http.send(HttpRequest.newBuilder(uri("/payments/health")).timeout(DEADLINE).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest createIntent() {
+        return HttpRequest.newBuilder(uri("/payments/create-intent"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"patientId\":\"" + UUID.randomUUID() + "\",\"amount\":125.50,\"currency\":\"USD\"}"))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
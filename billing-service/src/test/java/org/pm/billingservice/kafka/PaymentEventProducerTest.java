@@ -0,0 +1,55 @@
+package org.pm.billingservice.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.pm.billingservice.dto.PaymentResponse;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentEventProducerTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentEventProducer producer = new PaymentEventProducer(kafkaTemplate, meterRegistry, true);
+
+    @Test
+    void sendThatFailsAfterReturningIsCounted() {
+        CompletableFuture<SendResult<String, byte[]>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(anyString(), any(), any())).thenReturn(pending);
+
+        producer.sendSettled(payment("succeeded"), Instant.now());
+        assertThat(failed("PAYMENT_SUCCEEDED")).isZero();
+
+        pending.completeExceptionally(new TimeoutException("Expiring 1 record(s)"));
+        assertThat(failed("PAYMENT_SUCCEEDED")).isEqualTo(1);
+    }
+
+    @Test
+    void sendThatFailsImmediatelyIsCounted() {
+        when(kafkaTemplate.send(anyString(), any(), any())).thenThrow(new TimeoutException("No metadata"));
+
+        producer.sendCreated(payment("requires_payment_method"), Instant.now());
+
+        assertThat(failed("PAYMENT_INTENT_CREATED")).isEqualTo(1);
+    }
+
+    private double failed(String type) {
+        var counter = meterRegistry.find("billing.payment.events.failed").tag("type", type).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static PaymentResponse payment(String status) {
+        return new PaymentResponse("pi_1", "patient-1", status, 12550L, "usd", null);
+    }
+}
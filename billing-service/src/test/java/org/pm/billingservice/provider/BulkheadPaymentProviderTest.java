@@ -0,0 +1,129 @@
+package org.pm.billingservice.provider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.pm.billingservice.dto.CreatePaymentRequest;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.exception.PaymentProviderBusyException;
+import org.pm.billingservice.exception.PaymentProviderException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkheadPaymentProviderTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Held provider calls block until released, so nothing depends on timing
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void callsBeyondTheBulkheadFailFastAsBusy() throws Exception {
+        BulkheadPaymentProvider provider = bulkhead(held(), 2, Duration.ofHours(1), 1, 0);
+        Future<?> first = executor.submit(() -> provider.createPaymentIntent(request(), "key-1"));
+        Future<?> second = executor.submit(() -> provider.createPaymentIntent(request(), "key-2"));
+        awaitPermits(provider, 0);
+
+        // Would block until released if it queued rather than giving up
+        // after the acquire timeout
+        assertThatThrownBy(() -> provider.createPaymentIntent(request(), "key-3"))
+                .isInstanceOfSatisfying(PaymentProviderBusyException.class, e -> assertThat(e.isRetryable()).isTrue());
+
+        release.countDown();
+        first.get();
+        second.get();
+        awaitPermits(provider, 2);
+    }
+
+    @Test
+    void attemptsPastTheCallTimeoutAreAbandoned() throws Exception {
+        BulkheadPaymentProvider provider = bulkhead(held(), 2, Duration.ofMillis(100), 1, 0);
+
+        // Never released, so only the call timeout can end the call
+        assertThatThrownBy(() -> provider.createPaymentIntent(request(), "key-1"))
+                .isInstanceOfSatisfying(PaymentProviderException.class, e -> assertThat(e.isRetryable()).isTrue())
+                .hasMessageContaining("in time");
+
+        // The abandoned attempt is interrupted and gives its permit back
+        awaitPermits(provider, 2);
+    }
+
+    @Test
+    void retriesStopWhenTheBudgetIsSpent() throws Exception {
+        PaymentProvider target = mock(PaymentProvider.class);
+        when(target.retrievePayment(anyString())).thenThrow(new PaymentProviderException("unavailable", true));
+        BulkheadPaymentProvider provider = bulkhead(target, 2, Duration.ofSeconds(1), 3, 2);
+
+        assertThatThrownBy(() -> provider.retrievePayment("pi_1")).isInstanceOf(PaymentProviderException.class);
+        assertThatThrownBy(() -> provider.retrievePayment("pi_1")).isInstanceOf(PaymentProviderException.class);
+
+        // Two retries for the first call use up the budget; the second gets none
+        verify(target, times(4)).retrievePayment("pi_1");
+    }
+
+    @Test
+    void createsAreRetriedOnlyWithAnIdempotencyKey() throws Exception {
+        PaymentProvider target = mock(PaymentProvider.class);
+        when(target.createPaymentIntent(any(), any())).thenThrow(new PaymentProviderException("unavailable", true));
+        BulkheadPaymentProvider provider = bulkhead(target, 2, Duration.ofSeconds(1), 3, 10);
+
+        assertThatThrownBy(() -> provider.createPaymentIntent(request(), null))
+                .isInstanceOf(PaymentProviderException.class);
+        assertThatThrownBy(() -> provider.createPaymentIntent(request(), "key-1"))
+                .isInstanceOf(PaymentProviderException.class);
+
+        verify(target, times(1)).createPaymentIntent(any(), isNull());
+        verify(target, times(3)).createPaymentIntent(any(), any(String.class));
+    }
+
+    private BulkheadPaymentProvider bulkhead(PaymentProvider target, int maxConcurrentCalls, Duration callTimeout,
+                                             int maxAttempts, int maxRetryTokens) {
+        return new BulkheadPaymentProvider(target, executor, maxConcurrentCalls, Duration.ofMillis(50),
+                callTimeout, Duration.ofSeconds(8), maxAttempts, Duration.ofMillis(10), 0, maxRetryTokens);
+    }
+
+    private PaymentProvider held() throws PaymentProviderException {
+        PaymentProvider target = mock(PaymentProvider.class);
+        when(target.createPaymentIntent(any(), any())).thenAnswer(invocation -> {
+            release.await();
+            return new PaymentIntentResponse("pi_held", "secret", "requires_payment_method", 12550L, "usd");
+        });
+        return target;
+    }
+
+    private static void awaitPermits(BulkheadPaymentProvider provider, int permits) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (provider.availablePermits() != permits && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(provider.availablePermits()).isEqualTo(permits);
+    }
+
+    private static CreatePaymentRequest request() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setPatientId("123e4567-e89b-12d3-a456-426614174000");
+        request.setAmount(new BigDecimal("125.50"));
+        request.setCurrency("USD");
+        return request;
+    }
+}
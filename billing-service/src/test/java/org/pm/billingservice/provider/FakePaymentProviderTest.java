@@ -0,0 +1,91 @@
+package org.pm.billingservice.provider;
+
+import org.junit.jupiter.api.Test;
+import org.pm.billingservice.dto.CreatePaymentRequest;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.exception.PaymentProviderException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class FakePaymentProviderTest {
+
+    @Test
+    void idempotencyKeyReturnsTheSameIntent() throws Exception {
+        FakePaymentProvider provider = provider(Duration.ZERO, Duration.ZERO, 0, 0);
+
+        PaymentIntentResponse first = provider.createPaymentIntent(request(), "key-1");
+        PaymentIntentResponse repeat = provider.createPaymentIntent(request(), "key-1");
+        PaymentIntentResponse other = provider.createPaymentIntent(request(), "key-2");
+
+        assertThat(repeat.getPaymentIntentId()).isEqualTo(first.getPaymentIntentId());
+        assertThat(other.getPaymentIntentId()).isNotEqualTo(first.getPaymentIntentId());
+        assertThat(first.getAmount()).isEqualTo(12550L);
+        assertThat(provider.cancelPayment(first.getPaymentIntentId()).getStatus()).isEqualTo("canceled");
+    }
+
+    @Test
+    void oldestIntentsAndKeysAreForgottenOnceFull() throws Exception {
+        FakePaymentProvider provider = new FakePaymentProvider(Duration.ZERO, Duration.ZERO, 0, 0, 42L, 2);
+
+        PaymentIntentResponse oldest = provider.createPaymentIntent(request(), "key-1");
+        provider.createPaymentIntent(request(), "key-2");
+        PaymentIntentResponse newest = provider.createPaymentIntent(request(), "key-3");
+
+        assertThatThrownBy(() -> provider.retrievePayment(oldest.getPaymentIntentId()))
+                .isInstanceOfSatisfying(PaymentProviderException.class, e -> assertThat(e.isRetryable()).isFalse());
+        assertThat(provider.createPaymentIntent(request(), "key-1").getPaymentIntentId())
+                .isNotEqualTo(oldest.getPaymentIntentId());
+        assertThat(provider.retrievePayment(newest.getPaymentIntentId()).getStatus())
+                .isEqualTo("requires_payment_method");
+    }
+
+    @Test
+    void callsBeyondTheRateLimitAreRejectedAsRetryable() throws Exception {
+        FakePaymentProvider provider = provider(Duration.ZERO, Duration.ZERO, 0, 5);
+        for (int i = 0; i < 5; i++) {
+            provider.createPaymentIntent(request(), null);
+        }
+
+        assertThatThrownBy(() -> provider.createPaymentIntent(request(), null))
+                .isInstanceOfSatisfying(PaymentProviderException.class, e -> assertThat(e.isRetryable()).isTrue());
+    }
+
+    @Test
+    void failureRateOfOneFailsEveryCall() {
+        FakePaymentProvider provider = provider(Duration.ZERO, Duration.ZERO, 1, 0);
+
+        assertThatThrownBy(() -> provider.createPaymentIntent(request(), null))
+                .isInstanceOfSatisfying(PaymentProviderException.class, e -> assertThat(e.isRetryable()).isTrue());
+    }
+
+    @Test
+    void latenciesFollowTheConfiguredMedianAndP99() {
+        FakePaymentProvider provider = provider(Duration.ofMillis(100), Duration.ofMillis(500), 0, 0);
+
+        long[] nanos = IntStream.range(0, 20_000)
+                .mapToLong(i -> provider.sampleLatency().toNanos())
+                .sorted()
+                .toArray();
+
+        assertThat(nanos[nanos.length / 2] / 1e6).isCloseTo(100, within(5.0));
+        assertThat(nanos[nanos.length * 99 / 100] / 1e6).isCloseTo(500, within(50.0));
+    }
+
+    private static FakePaymentProvider provider(Duration median, Duration p99, double failureRate, int rateLimit) {
+        return new FakePaymentProvider(median, p99, failureRate, rateLimit, 42L, 100);
+    }
+
+    private static CreatePaymentRequest request() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setPatientId("123e4567-e89b-12d3-a456-426614174000");
+        request.setAmount(new BigDecimal("125.50"));
+        request.setCurrency("USD");
+        return request;
+    }
+}
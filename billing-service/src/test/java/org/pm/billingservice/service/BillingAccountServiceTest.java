@@ -0,0 +1,155 @@
+package org.pm.billingservice.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pm.billingservice.dto.BillingAccountDTO;
+import org.pm.billingservice.model.BillingAccountStatus;
+import org.pm.billingservice.repository.BillingAccountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Accounts are written by the writer thread in their own transactions, so
+ * the tests run outside a test transaction and count the JDBC statements
+ * each call prepares.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BillingAccountService.class, BillingAccountWriter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BillingAccountServiceTest {
+
+    @Autowired
+    private BillingAccountService billingAccountService;
+
+    @Autowired
+    private BillingAccountWriter billingAccountWriter;
+
+    @Autowired
+    private BillingAccountRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void createIsIdempotentPerPatient() {
+        String patientId = UUID.randomUUID().toString();
+
+        BillingAccountDTO first = billingAccountService.createAccount(patientId, "Jane", "jane@example.com").join();
+        BillingAccountDTO retry = billingAccountService.createAccount(patientId, "Jane", "jane@example.com").join();
+
+        assertThat(retry.getAccountId()).isEqualTo(first.getAccountId());
+        assertThat(first.getStatus()).isEqualTo(BillingAccountStatus.ACTIVE);
+        assertThat(countAccounts(patientId)).isEqualTo(1);
+    }
+
+    @Test
+    void createReturnsAnAccountWrittenByAnotherInstance() {
+        String patientId = UUID.randomUUID().toString();
+        UUID existing = UUID.randomUUID();
+        jdbcTemplate.update("insert into billing.billing_account (id, patient_id, name, email, status, created_at)"
+                + " values (?, ?, 'Jane', 'jane@example.com', 'ACTIVE', current_timestamp)", existing, patientId);
+
+        BillingAccountDTO account = billingAccountService.createAccount(patientId, "Jane", "jane@example.com").join();
+
+        assertThat(account.getAccountId()).isEqualTo(existing);
+        assertThat(countAccounts(patientId)).isEqualTo(1);
+    }
+
+    @Test
+    void batchIsOneLookupAndOneBatchedInsert() {
+        List<String> patientIds = IntStream.range(0, 40).mapToObj(i -> UUID.randomUUID().toString()).toList();
+        // Every patient twice, as when patient-service retries a timed-out call
+        List<BillingAccountWriter.PendingAccount> batch = IntStream.range(0, 80)
+                .mapToObj(i -> new BillingAccountWriter.PendingAccount(patientIds.get(i % 40),
+                        "Patient " + i, "patient" + i + "@example.com", new CompletableFuture<>()))
+                .toList();
+
+        billingAccountWriter.write(batch);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(batch).allSatisfy(pending -> assertThat(pending.result()).isCompleted());
+        for (int i = 0; i < 40; i++) {
+            assertThat(batch.get(i + 40).result().join().getAccountId())
+                    .isEqualTo(batch.get(i).result().join().getAccountId());
+            assertThat(countAccounts(patientIds.get(i))).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void lookupsOfKnownAccountsAreServedFromCache() {
+        String patientId = UUID.randomUUID().toString();
+        BillingAccountDTO created = billingAccountService.createAccount(patientId, "Jane", "jane@example.com").join();
+        statistics.clear();
+
+        assertThat(billingAccountService.findAccount(patientId))
+                .hasValueSatisfying(account -> assertThat(account.getAccountId()).isEqualTo(created.getAccountId()));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        assertThat(billingAccountService.findAccount(UUID.randomUUID().toString())).isEmpty();
+    }
+
+    @Test
+    void refusedAccountFailsOnlyItsOwnRequest() throws Exception {
+        String patientId = UUID.randomUUID().toString();
+        // A NOT NULL violation, which no existing account explains
+        CompletableFuture<BillingAccountDTO> refused = billingAccountWriter.submit(patientId, null, "jane@example.com");
+
+        assertThatThrownBy(() -> refused.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        assertThat(billingAccountService.createAccount(patientId, "Jane", "jane@example.com")
+                .get(10, TimeUnit.SECONDS).getPatientId()).isEqualTo(patientId);
+    }
+
+    @Test
+    void stoppedWriterRejectsRequests() {
+        BillingAccountWriter writer = new BillingAccountWriter(repository, transactionManager, 10);
+        writer.start();
+        writer.stop();
+
+        assertThat(writer.submit(UUID.randomUUID().toString(), "Jane", "jane@example.com"))
+                .failsWithin(Duration.ZERO)
+                .withThrowableThat()
+                .havingCause()
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private Integer countAccounts(String patientId) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from billing.billing_account where patient_id = ?", Integer.class, patientId);
+    }
+}
@@ -0,0 +1,149 @@
+package org.pm.billingservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.pm.billingservice.dto.CreatePaymentRequest;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.exception.IdempotencyKeyInProgressException;
+import org.pm.billingservice.exception.IdempotencyKeyReusedException;
+import org.pm.billingservice.exception.PaymentProviderException;
+import org.pm.billingservice.provider.PaymentProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import(PaymentIntentLedger.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentIntentLedgerTest {
+
+    @MockitoBean
+    private PaymentProvider paymentProvider;
+
+    @Autowired
+    private PaymentIntentLedger ledger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void repeatsReplayTheStoredResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+        when(paymentProvider.createPaymentIntent(any(), eq(key))).thenReturn(intent("pi_1"));
+
+        PaymentIntentResponse first = ledger.createPaymentIntent(key, request("100.00"));
+        PaymentIntentResponse repeat = ledger.createPaymentIntent(key, request("100"));
+
+        verify(paymentProvider, times(1)).createPaymentIntent(any(), eq(key));
+        assertThat(repeat.getPaymentIntentId()).isEqualTo(first.getPaymentIntentId());
+        assertThat(repeat.getClientSecret()).isEqualTo("pi_1_secret");
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        when(paymentProvider.createPaymentIntent(any(), eq(key))).thenReturn(intent("pi_2"));
+        ledger.createPaymentIntent(key, request("100.00"));
+
+        assertThatThrownBy(() -> ledger.createPaymentIntent(key, request("250.00")))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneStripeCall() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentProvider.createPaymentIntent(any(), eq(key))).thenAnswer(invocation -> {
+            release.await();
+            return intent("pi_3");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<PaymentIntentResponse>> results = IntStream.range(0, 8)
+                    .mapToObj(i -> executor.submit(() -> ledger.createPaymentIntent(key, request("100.00"))))
+                    .toList();
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<PaymentIntentResponse> result : results) {
+                assertThat(result.get().getPaymentIntentId()).isEqualTo("pi_3");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(paymentProvider, times(1)).createPaymentIntent(any(), eq(key));
+    }
+
+    @Test
+    void failedCallCanBeRetriedWithTheSameKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+        when(paymentProvider.createPaymentIntent(any(), eq(key)))
+                .thenThrow(new PaymentProviderException("connection reset", true))
+                .thenReturn(intent("pi_4"));
+
+        assertThatThrownBy(() -> ledger.createPaymentIntent(key, request("100.00")))
+                .isInstanceOf(PaymentProviderException.class);
+        PaymentIntentResponse retry = ledger.createPaymentIntent(key, request("100.00"));
+
+        assertThat(retry.getPaymentIntentId()).isEqualTo("pi_4");
+        verify(paymentProvider, times(2)).createPaymentIntent(any(), eq(key));
+    }
+
+    @Test
+    void pendingRowIsInProgressUntilItGoesStale() throws Exception {
+        String fresh = UUID.randomUUID().toString();
+        String stale = UUID.randomUUID().toString();
+        insertPending(fresh, Instant.now());
+        insertPending(stale, Instant.now().minusSeconds(300));
+        when(paymentProvider.createPaymentIntent(any(), eq(stale))).thenReturn(intent("pi_5"));
+
+        assertThatThrownBy(() -> ledger.createPaymentIntent(fresh, request("100.00")))
+                .isInstanceOf(IdempotencyKeyInProgressException.class);
+        assertThat(ledger.createPaymentIntent(stale, request("100.00")).getPaymentIntentId()).isEqualTo("pi_5");
+    }
+
+    // Written as if by another instance that has not heard back from Stripe
+    private void insertPending(String key, Instant updatedAt) {
+        jdbcTemplate.update("insert into billing.payment_intent (idempotency_key, request_hash, status,"
+                        + " created_at, updated_at) values (?, ?, 'pending', ?, ?)",
+                key, PaymentIntentLedger.hash(request("100.00")), Timestamp.from(updatedAt), Timestamp.from(updatedAt));
+    }
+
+    private static CreatePaymentRequest request(String amount) {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setPatientId("123e4567-e89b-12d3-a456-426614174000");
+        request.setPatientName("John Doe");
+        request.setPatientEmail("john.doe@example.com");
+        request.setAmount(new BigDecimal(amount));
+        request.setCurrency("USD");
+        request.setDescription("Medical consultation");
+        return request;
+    }
+
+    private static PaymentIntentResponse intent(String id) {
+        return new PaymentIntentResponse(id, id + "_secret", "requires_payment_method", 10000L, "usd");
+    }
+}
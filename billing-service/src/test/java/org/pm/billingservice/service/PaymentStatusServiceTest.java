@@ -0,0 +1,208 @@
+package org.pm.billingservice.service;
+
+import com.stripe.exception.SignatureVerificationException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.pm.billingservice.FakeStripe;
+import org.pm.billingservice.dto.PaymentIntentResponse;
+import org.pm.billingservice.exception.WebhookSecretMissingException;
+import org.pm.billingservice.kafka.PaymentEventProducer;
+import org.pm.billingservice.provider.PaymentProvider;
+import org.pm.billingservice.provider.StripePaymentProvider;
+import org.pm.billingservice.repository.PaymentStatusRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Drives the real Stripe SDK against {@link FakeStripe} and counts how many
+ * status reads reach it.
+ */
+@DataJpaTest(properties = "stripe.webhook.secret=" + PaymentStatusServiceTest.WEBHOOK_SECRET)
+@Import({PaymentStatusService.class, StripePaymentProvider.class, PaymentIntentLedger.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentStatusServiceTest {
+
+    static final String WEBHOOK_SECRET = "whsec_test";
+
+    private static FakeStripe stripe;
+
+    @Autowired
+    private PaymentStatusService paymentStatusService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentStatusRecordRepository repository;
+
+    @Autowired
+    private PaymentProvider paymentProvider;
+
+    @Autowired
+    private PaymentIntentLedger paymentIntentLedger;
+
+    @MockitoBean
+    private PaymentEventProducer paymentEventProducer;
+
+    @BeforeAll
+    static void startFakeStripe() throws Exception {
+        stripe = new FakeStripe();
+    }
+
+    @DynamicPropertySource
+    static void stripeApiBase(DynamicPropertyRegistry registry) {
+        registry.add("stripe.api.base", () -> stripe.baseUrl());
+    }
+
+    @AfterAll
+    static void stopFakeStripe() {
+        stripe.close();
+    }
+
+    @Test
+    void unknownPaymentIsFetchedOnceThenServedLocally() throws Exception {
+        String id = paymentIntentId();
+        stripe.putPaymentIntent(id, "requires_payment_method");
+        int before = stripe.requests();
+
+        assertThat(paymentStatusService.getPaymentStatus(id).getStatus()).isEqualTo("requires_payment_method");
+        assertThat(paymentStatusService.getPaymentStatus(id).getStatus()).isEqualTo("requires_payment_method");
+
+        assertThat(stripe.requests() - before).isEqualTo(1);
+    }
+
+    @Test
+    void webhookUpdatesTheStoredStatus() throws Exception {
+        String id = paymentIntentId();
+        stripe.putPaymentIntent(id, "processing");
+        paymentStatusService.getPaymentStatus(id);
+        int before = stripe.requests();
+
+        String payload = FakeStripe.event("payment_intent.succeeded", id, "succeeded", now() + 1);
+        paymentStatusService.handleWebhook(payload, FakeStripe.sign(payload, WEBHOOK_SECRET));
+
+        assertThat(paymentStatusService.getPaymentStatus(id).getStatus()).isEqualTo("succeeded");
+        assertThat(stripe.requests()).isEqualTo(before);
+    }
+
+    @Test
+    void webhookWithABadSignatureIsRejected() throws Exception {
+        String id = paymentIntentId();
+        stripe.putPaymentIntent(id, "processing");
+        paymentStatusService.getPaymentStatus(id);
+
+        String payload = FakeStripe.event("payment_intent.succeeded", id, "succeeded", now() + 1);
+        assertThatThrownBy(() -> paymentStatusService.handleWebhook(payload, FakeStripe.sign(payload, "whsec_other")))
+                .isInstanceOf(SignatureVerificationException.class);
+
+        assertThat(paymentStatusService.getPaymentStatus(id).getStatus()).isEqualTo("processing");
+    }
+
+    @Test
+    void webhookWithoutAConfiguredSecretIsRefused() {
+        PaymentStatusService unconfigured = new PaymentStatusService(repository, paymentProvider,
+                paymentIntentLedger, paymentEventProducer, "", Duration.ofMinutes(5), 10);
+        String id = paymentIntentId();
+        String payload = FakeStripe.event("payment_intent.succeeded", id, "succeeded", now());
+
+        assertThatThrownBy(() -> unconfigured.handleWebhook(payload, FakeStripe.sign(payload, WEBHOOK_SECRET)))
+                .isInstanceOf(WebhookSecretMissingException.class);
+        assertThat(repository.existsById(id)).isFalse();
+    }
+
+    // Event times are whole seconds, local reads are not
+    @Test
+    void eventFromTheSecondOfAFetchStillApplies() throws Exception {
+        String id = paymentIntentId();
+        stripe.putPaymentIntent(id, "processing");
+        paymentStatusService.getPaymentStatus(id);
+
+        String payload = FakeStripe.event("payment_intent.succeeded", id, "succeeded", now());
+        paymentStatusService.handleWebhook(payload, FakeStripe.sign(payload, WEBHOOK_SECRET));
+
+        assertThat(paymentStatusService.getPaymentStatus(id).getStatus()).isEqualTo("succeeded");
+    }
+
+    @Test
+    void eventFromTheSecondOfCheckoutStillApplies() throws Exception {
+        String id = paymentIntentId();
+        paymentStatusService.recordCreated(
+                new PaymentIntentResponse(id, "secret", "requires_payment_method", 1000L, "usd"), "patient-1");
+
+        String payload = FakeStripe.event("payment_intent.succeeded", id, "succeeded", now());
+        paymentStatusService.handleWebhook(payload, FakeStripe.sign(payload, WEBHOOK_SECRET));
+
+        assertThat(paymentStatusService.getPaymentStatus(id).getStatus()).isEqualTo("succeeded");
+    }
+
+    @Test
+    void olderOrPostFinalEventsDoNotOverwrite() throws Exception {
+        String id = paymentIntentId();
+        String succeeded = FakeStripe.event("payment_intent.succeeded", id, "succeeded", now());
+        String lateProcessing = FakeStripe.event("payment_intent.processing", id, "processing", now() - 60);
+
+        paymentStatusService.handleWebhook(succeeded, FakeStripe.sign(succeeded, WEBHOOK_SECRET));
+        paymentStatusService.handleWebhook(lateProcessing, FakeStripe.sign(lateProcessing, WEBHOOK_SECRET));
+
+        assertThat(paymentStatusService.getPaymentStatus(id).getStatus()).isEqualTo("succeeded");
+    }
+
+    @Test
+    void eachTransitionIsPublishedOnce() throws Exception {
+        String id = paymentIntentId();
+        String created = FakeStripe.event("payment_intent.created", id, "requires_payment_method", now() - 10);
+        String succeeded = FakeStripe.event("payment_intent.succeeded", id, "succeeded", now());
+
+        paymentStatusService.handleWebhook(created, FakeStripe.sign(created, WEBHOOK_SECRET));
+        paymentStatusService.handleWebhook(created, FakeStripe.sign(created, WEBHOOK_SECRET));
+        paymentStatusService.handleWebhook(succeeded, FakeStripe.sign(succeeded, WEBHOOK_SECRET));
+        // Stripe redelivers events it has no acknowledgement for
+        paymentStatusService.handleWebhook(succeeded, FakeStripe.sign(succeeded, WEBHOOK_SECRET));
+
+        verify(paymentEventProducer, times(1)).sendCreated(argThat(p -> p.getPaymentId().equals(id)), any());
+        verify(paymentEventProducer, times(1)).sendSettled(argThat(p -> p.getPaymentId().equals(id)), any());
+    }
+
+    @Test
+    void staleInProgressStatusIsRefetched() throws Exception {
+        String id = paymentIntentId();
+        Timestamp anHourAgo = Timestamp.from(Instant.now().minusSeconds(3600));
+        jdbcTemplate.update("insert into billing.payment_status (payment_intent_id, status, source_updated_at,"
+                + " refreshed_at) values (?, 'processing', ?, ?)", id, anHourAgo, anHourAgo);
+        // The succeeded webhook was lost
+        stripe.putPaymentIntent(id, "succeeded");
+        int before = stripe.requests();
+
+        assertThat(paymentStatusService.getPaymentStatus(id).getStatus()).isEqualTo("succeeded");
+        assertThat(paymentStatusService.getPaymentStatus(id).getStatus()).isEqualTo("succeeded");
+        assertThat(stripe.requests() - before).isEqualTo(1);
+    }
+
+    private static String paymentIntentId() {
+        return "pi_" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static long now() {
+        return Instant.now().getEpochSecond();
+    }
+}
@@ -58,4 +58,32 @@ describe('api client', () => {
     const [, init] = fetchMock.mock.calls[0]!;
     expect((init?.headers as Headers).get('Authorization')).toBe('Bearer tok');
   });
+
+  it('refreshes an expired access token once and retries', async () => {
+    authStore.setTokens('expired', 'refresh-1');
+
+    const fetchMock = vi
+      .spyOn(globalThis, 'fetch')
+      .mockResolvedValueOnce(new Response(null, { status: 401 }))
+      .mockResolvedValueOnce(
+        new Response(JSON.stringify({ token: 'fresh', refreshToken: 'refresh-2' }), {
+          status: 200,
+          headers: { 'content-type': 'application/json' },
+        })
+      )
+      .mockResolvedValueOnce(
+        new Response(JSON.stringify([]), {
+          status: 200,
+          headers: { 'content-type': 'application/json' },
+        })
+      );
+
+    await client.getPatients();
+
+    expect(fetchMock).toHaveBeenCalledTimes(3);
+    expect(String(fetchMock.mock.calls[1]![0])).toContain('/auth/refresh');
+    const [, retryInit] = fetchMock.mock.calls[2]!;
+    expect((retryInit?.headers as Headers).get('Authorization')).toBe('Bearer fresh');
+    expect(authStore.getRefreshToken()).toBe('refresh-2');
+  });
 });
@@ -1,10 +1,16 @@
 import { http } from './http';
+import { authStore } from '../ui/authStore';
 import type { LoginRequest, LoginResponse, Patient, PatientRequest, ServiceHealth, CreatePaymentRequest, PaymentIntentResponse, PaymentResponse, AnalyticsEvent, AnalyticsSummary } from './types';
 
 export async function login(payload: LoginRequest): Promise<LoginResponse> {
   return http<LoginResponse>('/auth/login', { method: 'POST', json: payload, auth: false });
 }
 
+export async function logout(): Promise<void> {
+  const refreshToken = authStore.getRefreshToken();
+  return http<void>('/auth/logout', { method: 'POST', json: refreshToken ? { refreshToken } : undefined });
+}
+
 export async function validateToken(): Promise<void> {
   return http<void>('/auth/validate', { method: 'GET' });
 }
@@ -30,8 +36,13 @@ export async function deletePatient(id: string): Promise<void> {
 }
 
 // Payment APIs (Stripe via Billing Service)
-export async function createPaymentIntent(payload: CreatePaymentRequest): Promise<PaymentIntentResponse> {
-  return http<PaymentIntentResponse>('/api/billing/payments/create-intent', { method: 'POST', json: payload });
+// Retries with the same idempotency key return the intent created by the first attempt
+export async function createPaymentIntent(payload: CreatePaymentRequest, idempotencyKey?: string): Promise<PaymentIntentResponse> {
+  return http<PaymentIntentResponse>('/api/billing/payments/create-intent', {
+    method: 'POST',
+    json: payload,
+    headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : undefined,
+  });
 }
 
 export async function getPaymentStatus(paymentIntentId: string): Promise<PaymentResponse> {
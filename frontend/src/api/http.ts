@@ -19,6 +19,32 @@ function joinUrl(baseUrl: string, path: string) {
 
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL as string | undefined;
 
+// Access tokens are short-lived; concurrent 401s share a single refresh call.
+let refreshInFlight: Promise<boolean> | null = null;
+
+function refreshAccessToken(): Promise<boolean> {
+  const refreshToken = authStore.getRefreshToken();
+  if (!refreshToken) return Promise.resolve(false);
+
+  refreshInFlight ??= fetch(joinUrl(API_BASE_URL ?? '', '/auth/refresh'), {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json', Accept: 'application/json' },
+    body: JSON.stringify({ refreshToken }),
+  })
+    .then(async (res) => {
+      if (!res.ok) return false;
+      const body = (await res.json()) as { token: string; refreshToken?: string };
+      authStore.setTokens(body.token, body.refreshToken);
+      return true;
+    })
+    .catch(() => false)
+    .finally(() => {
+      refreshInFlight = null;
+    });
+
+  return refreshInFlight;
+}
+
 export async function http<T>(
   path: string,
   init?: RequestInit & { json?: unknown; auth?: boolean }
@@ -38,11 +64,19 @@ export async function http<T>(
     if (token) headers.set('Authorization', `Bearer ${token}`);
   }
 
-  const res = await fetch(url, {
-    ...init,
-    headers,
-    body: init?.json !== undefined ? JSON.stringify(init.json) : init?.body,
-  });
+  const send = () =>
+    fetch(url, {
+      ...init,
+      headers,
+      body: init?.json !== undefined ? JSON.stringify(init.json) : init?.body,
+    });
+
+  let res = await send();
+
+  if (res.status === 401 && shouldAuth && (await refreshAccessToken())) {
+    headers.set('Authorization', `Bearer ${authStore.getToken()}`);
+    res = await send();
+  }
 
   if (res.status === 401) {
     // token invalid/expired — force logout
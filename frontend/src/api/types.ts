@@ -5,6 +5,8 @@ export type LoginRequest = {
 
 export type LoginResponse = {
   token: string;
+  refreshToken?: string;
+  expiresIn?: number;
 };
 
 export type Patient = {
@@ -1,5 +1,6 @@
 import { Outlet, Link, useNavigate, useLocation } from 'react-router-dom';
 import { authStore } from './authStore';
+import * as api from '../api/client';
 
 export function AppShell() {
   const navigate = useNavigate();
@@ -34,8 +35,11 @@ export function AppShell() {
             <button
               className="btn"
               onClick={() => {
-                authStore.clearToken();
-                navigate('/login');
+                // Best effort: revoke server-side, but always clear locally
+                api.logout().catch(() => undefined).finally(() => {
+                  authStore.clearToken();
+                  navigate('/login');
+                });
               }}
             >
               Logout
@@ -12,7 +12,7 @@ export function LoginPage() {
   const mutation = useMutation({
     mutationFn: api.login,
     onSuccess: (res) => {
-      authStore.setToken(res.token);
+      authStore.setTokens(res.token, res.refreshToken);
       navigate('/patients');
     },
   });
@@ -1,4 +1,5 @@
 const TOKEN_KEY = 'pm_token';
+const REFRESH_TOKEN_KEY = 'pm_refresh_token';
 
 export const authStore = {
   getToken(): string | null {
@@ -7,7 +8,15 @@ export const authStore = {
   setToken(token: string) {
     localStorage.setItem(TOKEN_KEY, token);
   },
+  getRefreshToken(): string | null {
+    return localStorage.getItem(REFRESH_TOKEN_KEY);
+  },
+  setTokens(token: string, refreshToken?: string) {
+    localStorage.setItem(TOKEN_KEY, token);
+    if (refreshToken) localStorage.setItem(REFRESH_TOKEN_KEY, refreshToken);
+  },
   clearToken() {
     localStorage.removeItem(TOKEN_KEY);
+    localStorage.removeItem(REFRESH_TOKEN_KEY);
   },
 };
@@ -1,9 +1,9 @@
-import { useState } from 'react';
+import { useMemo, useState } from 'react';
 import { loadStripe } from '@stripe/stripe-js';
 import { Elements, PaymentElement, useStripe, useElements } from '@stripe/react-stripe-js';
 import { useMutation } from '@tanstack/react-query';
 import * as api from '../../api/client';
-import type { Patient } from '../../api/types';
+import type { CreatePaymentRequest, Patient } from '../../api/types';
 
 // Initialize Stripe with your publishable key
 // In production, load this from environment variable
@@ -73,8 +73,12 @@ export function PaymentModal({ patient, onClose, onSuccess }: PaymentModalProps)
   const [description, setDescription] = useState<string>('Medical consultation');
   const [clientSecret, setClientSecret] = useState<string | null>(null);
 
+  // One key per amount and description, so a double click or retry reuses
+  // the intent already created while an edited payment gets a new one
+  const idempotencyKey = useMemo(() => crypto.randomUUID(), [amount, description]);
+
   const createIntentMutation = useMutation({
-    mutationFn: api.createPaymentIntent,
+    mutationFn: (payload: CreatePaymentRequest) => api.createPaymentIntent(payload, idempotencyKey),
     onSuccess: (data) => {
       setClientSecret(data.clientSecret);
     },
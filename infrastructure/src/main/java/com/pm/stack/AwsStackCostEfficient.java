@@ -102,15 +102,15 @@ public class AwsStackCostEfficient extends Stack {
                 List.of(4005),
                 sharedDb,
                 "auth",
-                Map.of("JWT_SECRET", "Y2hhVEc3aHJnb0hYTzMyZ2ZqVkpiZ1RkZG93YWxrUkM=")
+                Map.of("JWT_SIGNING_ALGORITHM", "ES256")
         );
 
         createFargateService(
                 "BillingService",
                 billingServiceRepo,
                 List.of(4001, 9001),
-                null,
-                null,
+                sharedDb,
+                "billing",
                 null
         );
 
@@ -121,7 +121,11 @@ public class AwsStackCostEfficient extends Stack {
                 List.of(4002),
                 null,
                 null,
-                Map.of("KAFKA_ENABLED", "false") // Disable Kafka to save costs
+                Map.of(
+                        "KAFKA_ENABLED", "false", // Disable Kafka to save costs
+                        // One address per task, so /analytics/summary covers every instance
+                        "ANALYTICS_PEERS", "analytics-service.patient-management.local"
+                )
         );
 
         createFargateService(
@@ -275,7 +279,7 @@ public class AwsStackCostEfficient extends Stack {
                     schema));
             envVars.put("SPRING_DATASOURCE_USERNAME", "admin_user");
             envVars.put("SPRING_DATASOURCE_PASSWORD", db.getSecret().secretValueFromJson("password").unsafeUnwrap());
-            envVars.put("SPRING_JPA_HIBERNATE_DDL_AUTO", "update");
+            envVars.put("SPRING_JPA_HIBERNATE_DDL_AUTO", "validate");
             envVars.put("SPRING_JPA_PROPERTIES_HIBERNATE_DEFAULT_SCHEMA", schema);
         }
 
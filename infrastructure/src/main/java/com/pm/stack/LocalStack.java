@@ -54,12 +54,18 @@ public class LocalStack extends Stack {
         DatabaseInstance patientServiceDb =
                 createDatabase("PatientServiceDB", "patient-service-db");
 
+        DatabaseInstance billingServiceDb =
+                createDatabase("BillingServiceDB", "billing-service-db");
+
         CfnHealthCheck authDbHealthCheck =
                 createDbHealthCheck(authServiceDb, "AuthServiceDBHealthCheck");
 
         CfnHealthCheck patientDbHealthCheck =
                 createDbHealthCheck(patientServiceDb, "PatientServiceDBHealthCheck");
 
+        CfnHealthCheck billingDbHealthCheck =
+                createDbHealthCheck(billingServiceDb, "BillingServiceDBHealthCheck");
+
         // NOTE: MSK cluster removed - LocalStack has built-in Kafka support
         // that works better than simulated MSK. Services connect to
         // localhost.localstack.cloud:4510-4511 automatically.
@@ -71,7 +77,7 @@ public class LocalStack extends Stack {
                         "auth-service",
                         List.of(4005),
                         authServiceDb,
-                        Map.of("JWT_SECRET", "Y2hhVEc3aHJnb0hYTzMyZ2ZqVkpiZ1RkZG93YWxrUkM="));
+                        Map.of("JWT_SIGNING_ALGORITHM", "ES256"));
 
         authService.getNode().addDependency(authDbHealthCheck);
         authService.getNode().addDependency(authServiceDb);
@@ -80,8 +86,10 @@ public class LocalStack extends Stack {
                 createFargateService("BillingService",
                         "billing-service",
                         List.of(4001,9001),
-                        null,
+                        billingServiceDb,
                         null);
+        billingService.getNode().addDependency(billingDbHealthCheck);
+        billingService.getNode().addDependency(billingServiceDb);
 
         FargateService analyticsService =
                 createFargateService("AnalyticsService",
@@ -220,8 +228,7 @@ public class LocalStack extends Stack {
             envVars.put("SPRING_DATASOURCE_USERNAME", "admin_user");
             envVars.put("SPRING_DATASOURCE_PASSWORD",
                     db.getSecret().secretValueFromJson("password").toString());
-            envVars.put("SPRING_JPA_HIBERNATE_DDL_AUTO", "update");
-            envVars.put("SPRING_SQL_INIT_MODE", "always");
+            envVars.put("SPRING_JPA_HIBERNATE_DDL_AUTO", "validate");
             envVars.put("SPRING_DATASOURCE_HIKARI_INITIALIZATION_FAIL_TIMEOUT", "60000");
         }
 
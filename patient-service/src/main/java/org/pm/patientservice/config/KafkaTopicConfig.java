@@ -0,0 +1,18 @@
+package org.pm.patientservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    // analytics-service splits its state by partition, so this caps how many
+    // of its instances share the ingest; created at startup if missing
+    @Bean
+    public NewTopic patientTopic(@Value("${patient.events.partitions:6}") int partitions) {
+        return TopicBuilder.name("patient").partitions(partitions).build();
+    }
+}
@@ -0,0 +1,99 @@
+package org.pm.patientservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.pm.patientservice.datasource.ReadYourWrites;
+import org.pm.patientservice.datasource.ReadYourWritesFilter;
+import org.pm.patientservice.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to read replicas and everything else to the
+ * primary. Replicas are listed as JDBC URLs in
+ * {@code patient.datasource.replica-urls} and share the primary's
+ * credentials and Hikari settings; with none listed, every connection
+ * comes from the primary. The beans are registered either way rather than
+ * behind a condition, which AOT would settle at build time, so the
+ * property also switches routing on in an AOT-built image.
+ *
+ * The lazy proxy defers fetching a physical connection until the first
+ * statement, by which point the transaction has marked the connection
+ * read-only and the proxy can pick the replica side.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ReadReplicaDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, Environment environment,
+                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        return pool(properties, properties.determineUrl(), "primary", environment, meterRegistry);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            DataSourceProperties properties, Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${patient.datasource.replica-urls:}") List<String> replicaUrls) {
+        List<String> urls = replicaUrls.stream().map(String::trim).filter(url -> !url.isEmpty()).toList();
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = pool(properties, urls.get(i), "replica-" + (i + 1),
+                    environment, meterRegistry);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        if (replicaDataSource.hasReplicas()) {
+            dataSource.setReadOnlyDataSource(replicaDataSource);
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(
+            @Value("${patient.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadYourWrites readYourWrites) {
+        return new ReadYourWritesFilter(readYourWrites);
+    }
+
+    // Every pool is registered with Micrometer under its own name, so
+    // hikaricp.connections.* can be compared per datasource
+    private static HikariDataSource pool(DataSourceProperties properties, String url, String name,
+                                         Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        meterRegistry.ifAvailable(pool::setMetricRegistry);
+        return pool;
+    }
+}
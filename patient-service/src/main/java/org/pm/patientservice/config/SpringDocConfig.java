@@ -0,0 +1,23 @@
+package org.pm.patientservice.config;
+
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SpringDocConfig {
+
+    private static final String QUERYDSL_CUSTOMIZER = "queryDslQuerydslPredicateOperationCustomizer";
+
+    // springdoc 2.x registers a Querydsl operation customizer built against
+    // Spring Data 3. Without Querydsl it is always null, but Spring AOT
+    // introspects its class and fails on the type Spring Data 4 moved
+    @Bean
+    public static BeanDefinitionRegistryPostProcessor removeQuerydslCustomizer() {
+        return registry -> {
+            if (registry.containsBeanDefinition(QUERYDSL_CUSTOMIZER)) {
+                registry.removeBeanDefinition(QUERYDSL_CUSTOMIZER);
+            }
+        };
+    }
+}
@@ -1,18 +1,33 @@
 package org.pm.patientservice.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.groups.Default;
 import org.pm.patientservice.dto.CreatePatientValidationGroup;
 import org.pm.patientservice.dto.PatientRequestDTO;
 import org.pm.patientservice.dto.PatientResponseDTO;
-import org.pm.patientservice.repository.PatientRepository;
+import org.pm.patientservice.mapper.PatientMapper;
 import org.pm.patientservice.service.PatientService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,18 +35,51 @@ import java.util.UUID;
 @RequestMapping("/patients")
 @Tag(name = "Patient", description = "Patient Management APIs")
 public class PatientController {
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final PatientService patientService;
     public PatientController(PatientService patientService) {
         this.patientService = patientService;
     }
 
-    @GetMapping
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, "application/x-protobuf"})
     @Operation(summary = "Get Patients")
-    public ResponseEntity<List<PatientResponseDTO>> getPatients() {
+    @ApiResponse(responseCode = "200", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = PatientResponseDTO.class))),
+            @Content(mediaType = "application/x-protobuf")})
+    public ResponseEntity<?> getPatients(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         List<PatientResponseDTO> patients = patientService.getPatients();
+        if (acceptsProtobuf(accept)) {
+            return ResponseEntity.ok()
+                    .contentType(ProtobufHttpMessageConverter.PROTOBUF)
+                    .body(PatientMapper.toProto(patients));
+        }
         return ResponseEntity.ok().body(patients);
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search Patients by name prefix and/or date of birth range")
+    public ResponseEntity<List<PatientResponseDTO>> searchPatients(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return ResponseEntity.ok().body(patientService.searchPatients(name, bornFrom, bornTo, limit));
+    }
+
+    @GetMapping(value = "/export", produces = "text/csv")
+    @Operation(summary = "Export all Patients as CSV")
+    public ResponseEntity<StreamingResponseBody> exportPatients() {
+        StreamingResponseBody body = outputStream -> patientService.exportPatients(
+                new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"patients.csv\"")
+                .body(body);
+    }
+
     @PostMapping
     @Operation(summary = "Create a new Patient")
     public ResponseEntity<PatientResponseDTO> createPatient(
@@ -61,5 +109,11 @@ public class PatientController {
     public ResponseEntity<Void> deletePatient(@PathVariable UUID id) {
         patientService.deletePatient(id);
         return ResponseEntity.noContent().build();
+    }
 
-}}
+    // Protobuf only when asked for explicitly; */* and browsers keep getting JSON
+    private static boolean acceptsProtobuf(String accept) {
+        return accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(ProtobufHttpMessageConverter.PROTOBUF::equalsTypeAndSubtype);
+    }
+}
@@ -0,0 +1,52 @@
+package org.pm.patientservice.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers which callers wrote within the last {@code window} so their
+ * reads can be pinned to the primary until replicas have caught up. The
+ * pin for the current request is held in a thread local set by
+ * {@link ReadYourWritesFilter}.
+ *
+ * State is per instance: a caller whose next read lands on another
+ * instance may still see replica lag.
+ */
+public class ReadYourWrites {
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final long windowNanos;
+    private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void markWrite(String caller) {
+        long now = System.nanoTime();
+        lastWrites.put(caller, now);
+        if (lastWrites.size() > PRUNE_THRESHOLD) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt > windowNanos);
+        }
+    }
+
+    public boolean wroteRecently(String caller) {
+        Long writtenAt = lastWrites.get(caller);
+        return writtenAt != null && System.nanoTime() - writtenAt <= windowNanos;
+    }
+
+    static void pinToPrimary(boolean pinned) {
+        PINNED.set(pinned);
+    }
+
+    static void clearPin() {
+        PINNED.remove();
+    }
+
+    static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+}
@@ -0,0 +1,54 @@
+package org.pm.patientservice.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Identifies the caller by the token subject the gateway verified and
+ * forwards in {@value #SUBJECT_HEADER}, and pins its reads to the primary
+ * while it has a recent write. Writes are recorded when they start as well
+ * as when they finish, so a read racing the tail of the write's response
+ * still goes to the primary.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String SUBJECT_HEADER = "X-Authenticated-Subject";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReadYourWrites readYourWrites;
+
+    public ReadYourWritesFilter(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String caller = request.getHeader(SUBJECT_HEADER);
+        if (caller == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write) {
+            readYourWrites.markWrite(caller);
+        }
+        ReadYourWrites.pinToPrimary(write || readYourWrites.wroteRecently(caller));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clearPin();
+            if (write) {
+                readYourWrites.markWrite(caller);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.pm.patientservice.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Read-side view of a patient, built by JPQL constructor expressions so list,
+ * search and export queries never hydrate managed entities.
+ */
+public class PatientSummaryDTO {
+    private final UUID id;
+    private final String name;
+    private final String email;
+    private final String address;
+    private final LocalDate dateOfBirth;
+
+    public PatientSummaryDTO(UUID id, String name, String email, String address, LocalDate dateOfBirth) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.address = address;
+        this.dateOfBirth = dateOfBirth;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public LocalDate getDateOfBirth() {
+        return dateOfBirth;
+    }
+}
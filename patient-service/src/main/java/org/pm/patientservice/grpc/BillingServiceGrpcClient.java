@@ -1,33 +1,50 @@
 package org.pm.patientservice.grpc;
 
+import billing.BillingAccountRequest;
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcClientInterceptor;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class BillingServiceGrpcClient {
 
     private static final Logger log = LoggerFactory.getLogger(
             BillingServiceGrpcClient.class);
     private final BillingServiceGrpc.BillingServiceBlockingStub blockingStub;
+    private final Duration deadline;
 
     public BillingServiceGrpcClient(
             @Value("${billing.service.address:localhost}") String serverAddress,
-            @Value("${billing.service.grpc.port:9001}") int serverPort) {
+            @Value("${billing.service.grpc.port:9001}") int serverPort,
+            @Value("${billing.service.grpc.deadline:3s}") Duration deadline,
+            ObservationRegistry observationRegistry) {
 
         log.info("Connecting to Billing Service GRPC service at {}:{}",
                 serverAddress, serverPort);
 
+        // Observes each call and injects the current trace context into the
+        // request metadata so billing-service joins the same trace
         ManagedChannel channel = ManagedChannelBuilder.forAddress(serverAddress,
-                serverPort).usePlaintext().build();
+                serverPort).usePlaintext()
+                .intercept(new ObservationGrpcClientInterceptor(observationRegistry))
+                .build();
 
         blockingStub = BillingServiceGrpc.newBlockingStub(channel);
+        this.deadline = deadline;
     }
 
     public BillingResponse createBillingAccount(String patientId, String name,
@@ -36,8 +53,27 @@ public class BillingServiceGrpcClient {
         BillingRequest request = BillingRequest.newBuilder().setPatientId(patientId)
                 .setName(name).setEmail(email).build();
 
-        BillingResponse response = blockingStub.createBillingAccount(request);
+        BillingResponse response = stub().createBillingAccount(request);
         log.info("Received response from billing service via GRPC: {}", response);
         return response;
     }
+
+    // Answered from billing-service's account cache for recently seen patients
+    public Optional<BillingResponse> getBillingAccount(String patientId) {
+        try {
+            return Optional.of(stub().getBillingAccount(
+                    BillingAccountRequest.newBuilder().setPatientId(patientId).build()));
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    // A deadline counts from when it is set, so each call gets a fresh one;
+    // without it a stalled billing-service would hold the caller forever
+    private BillingServiceGrpc.BillingServiceBlockingStub stub() {
+        return blockingStub.withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS);
+    }
 }
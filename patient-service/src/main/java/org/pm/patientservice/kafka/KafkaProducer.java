@@ -1,11 +1,17 @@
 package org.pm.patientservice.kafka;
 
+import com.google.protobuf.ByteString;
 import org.pm.patientservice.model.Patient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import patient.events.PatientEvent;
+import patient.events.PatientEventType;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
 
 @Service
 public class KafkaProducer {
@@ -13,23 +19,50 @@ public class KafkaProducer {
     private static final Logger log = LoggerFactory.getLogger(
             KafkaProducer.class);
     private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final boolean legacyFields;
 
-    public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate) {
+    // Legacy fields double the size of a deleted event; enable them only
+    // while an analytics-service that reads patientId/event_type still runs
+    public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate,
+                         @Value("${patient.events.legacy-fields:false}") boolean legacyFields) {
         this.kafkaTemplate = kafkaTemplate;
+        this.legacyFields = legacyFields;
     }
 
     public void sendEvent(Patient patient) {
-        PatientEvent event = PatientEvent.newBuilder()
-                .setPatientId(patient.getId().toString())
+        PatientEvent event = event(patient.getId(), PatientEventType.PATIENT_CREATED)
                 .setName(patient.getName())
                 .setEmail(patient.getEmail())
-                .setEventType("PATIENT_CREATED")
                 .build();
 
+        send(patient.getId(), event);
+    }
+
+    // Carries only the id; consumers drop or anonymise what they hold for it
+    public void sendDeletedEvent(UUID patientId) {
+        send(patientId, event(patientId, PatientEventType.PATIENT_DELETED).build());
+    }
+
+    private PatientEvent.Builder event(UUID patientId, PatientEventType type) {
+        PatientEvent.Builder event = PatientEvent.newBuilder()
+                .setPatientKey(ByteString.copyFrom(ByteBuffer.allocate(16)
+                        .putLong(patientId.getMostSignificantBits())
+                        .putLong(patientId.getLeastSignificantBits())
+                        .array()))
+                .setType(type);
+        if (legacyFields) {
+            event.setPatientId(patientId.toString()).setEventType(type.name());
+        }
+        return event;
+    }
+
+    // Keyed by patient, so all of a patient's events land in one partition
+    // and analytics can keep each partition's state on its own
+    private void send(UUID patientId, PatientEvent event) {
         try {
-            kafkaTemplate.send("patient", event.toByteArray());
+            kafkaTemplate.send("patient", patientId.toString(), event.toByteArray());
         } catch (Exception e) {
-            log.error("Error sending PatientCreated event: {}", event);
+            log.error("Error sending {} event: {}", event.getType(), event);
         }
     }
-}
\ No newline at end of file
+}
@@ -2,11 +2,17 @@ package org.pm.patientservice.mapper;
 
 import org.pm.patientservice.dto.PatientRequestDTO;
 import org.pm.patientservice.dto.PatientResponseDTO;
+import org.pm.patientservice.dto.PatientSummaryDTO;
 import org.pm.patientservice.model.Patient;
+import patient.api.PatientListResponse;
+import patient.api.PatientResponse;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public class PatientMapper {
+    public static final String CSV_HEADER = "id,name,email,address,date_of_birth\n";
+
     public static PatientResponseDTO toDTO(Patient patient) {
         PatientResponseDTO patientDTO = new PatientResponseDTO();
         patientDTO.setId(patient.getId().toString());
@@ -18,6 +24,22 @@ public class PatientMapper {
         return patientDTO;
     }
 
+    public static PatientResponseDTO toDTO(PatientSummaryDTO patient) {
+        PatientResponseDTO patientDTO = new PatientResponseDTO();
+        patientDTO.setId(patient.getId().toString());
+        patientDTO.setName(patient.getName());
+        patientDTO.setAddress(patient.getAddress());
+        patientDTO.setEmail(patient.getEmail());
+        patientDTO.setDateOfBirth(patient.getDateOfBirth().toString());
+
+        return patientDTO;
+    }
+
+    public static String toCsvRow(PatientSummaryDTO patient) {
+        return patient.getId() + "," + csvField(patient.getName()) + "," + csvField(patient.getEmail())
+                + "," + csvField(patient.getAddress()) + "," + patient.getDateOfBirth() + "\n";
+    }
+
     public static Patient toModel(PatientRequestDTO patientRequestDTO) {
         Patient patient = new Patient();
         patient.setName(patientRequestDTO.getName());
@@ -27,4 +49,26 @@ public class PatientMapper {
         patient.setRegisteredDate(LocalDate.parse(patientRequestDTO.getRegisteredDate()));
         return patient;
     }
+
+    public static PatientListResponse toProto(List<PatientResponseDTO> patients) {
+        PatientListResponse.Builder builder = PatientListResponse.newBuilder();
+        for (PatientResponseDTO patient : patients) {
+            builder.addPatients(PatientResponse.newBuilder()
+                    .setId(patient.getId())
+                    .setName(patient.getName())
+                    .setEmail(patient.getEmail())
+                    .setAddress(patient.getAddress())
+                    .setDateOfBirth(patient.getDateOfBirth()));
+        }
+        return builder.build();
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
 }
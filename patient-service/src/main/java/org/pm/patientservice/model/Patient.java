@@ -1,21 +1,31 @@
 package org.pm.patientservice.model;
 
-import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "patient", schema = "patient")
+@Table(name = "patient", schema = "patient", indexes = {
+        @Index(name = "idx_patient_registered_date", columnList = "registeredDate DESC, id"),
+        @Index(name = "idx_patient_date_of_birth", columnList = "dateOfBirth"),
+        @Index(name = "idx_patient_name", columnList = "name"),
+        @Index(name = "idx_patient_deleted_at", columnList = "deletedAt")})
+// Soft-deleted rows stay until purged but are invisible to entity and JPQL queries
+@SQLRestriction("deleted_at is null")
 public class Patient {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    // Generated in the JVM at persist time, so inserts need no extra round-trip
+    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @NotNull
@@ -23,7 +33,7 @@ public class Patient {
 
     @NotNull
     @Email
-    @Column(unique = true)
+    // Unique among live patients only, by uk_patient_live_email
     private String email;
 
     @NotNull
@@ -35,6 +45,8 @@ public class Patient {
     @NotNull
     private LocalDate registeredDate;
 
+    private Instant deletedAt;
+
     public UUID getId() {
         return id;
     }
@@ -83,4 +95,12 @@ public class Patient {
         this.registeredDate = registeredDate;
     }
 
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
 }
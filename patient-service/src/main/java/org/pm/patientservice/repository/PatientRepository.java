@@ -1,13 +1,76 @@
 package org.pm.patientservice.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.pm.patientservice.dto.PatientSummaryDTO;
 import org.pm.patientservice.model.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, UUID> {
-    boolean existsByEmail(String email);
-    boolean existsByEmailAndIdNot(String email, UUID id);
+    String SUMMARY = "select new org.pm.patientservice.dto.PatientSummaryDTO("
+            + "p.id, p.name, p.email, p.address, p.dateOfBirth) from Patient p";
+
+    /**
+     * Overwrites the editable fields in one statement without loading the
+     * entity; returns 0 if no live patient has this id. An email taken by
+     * another live patient surfaces as a unique constraint violation.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Patient p set p.name = :name, p.email = :email, p.address = :address,"
+            + " p.dateOfBirth = :dateOfBirth where p.id = :id and p.deletedAt is null")
+    int updateDetails(UUID id, String name, String email, String address, LocalDate dateOfBirth);
+
+    /**
+     * Marks the patient deleted; returns 0 if it does not exist or was
+     * already deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Patient p set p.deletedAt = :now where p.id = :id and p.deletedAt is null")
+    int softDelete(UUID id, Instant now);
+
+    /**
+     * Hard-deletes up to {@code batchSize} patients soft-deleted before
+     * {@code cutoff}, oldest first. Native because the entity restriction
+     * hides exactly these rows from JPQL.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from patient.patient where id in (select id from patient.patient"
+            + " where deleted_at < :cutoff order by deleted_at limit :batchSize)", nativeQuery = true)
+    int purgeDeletedBefore(Instant cutoff, int batchSize);
+
+    // Newest first, backed by idx_patient_registered_date
+    @Query(SUMMARY + " order by p.registeredDate desc, p.id")
+    List<PatientSummaryDTO> findAllSummaries();
+
+    // Same order as the list; rows are fetched in batches while the caller
+    // consumes the stream inside its transaction
+    @Query(SUMMARY + " order by p.registeredDate desc, p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<PatientSummaryDTO> streamAllSummaries();
+
+    // Backed by idx_patient_name; the pattern is a prefix with LIKE
+    // wildcards escaped by '\' and a trailing '%'
+    @Query(SUMMARY + " where p.name like :namePattern escape '\\'"
+            + " and p.dateOfBirth between :bornFrom and :bornTo order by p.name")
+    List<PatientSummaryDTO> searchByName(String namePattern, LocalDate bornFrom, LocalDate bornTo, Limit limit);
+
+    // Backed by idx_patient_date_of_birth
+    @Query(SUMMARY + " where p.dateOfBirth between :bornFrom and :bornTo order by p.dateOfBirth")
+    List<PatientSummaryDTO> searchByDateOfBirth(LocalDate bornFrom, LocalDate bornTo, Limit limit);
 }
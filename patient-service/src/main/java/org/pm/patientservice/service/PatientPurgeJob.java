@@ -0,0 +1,73 @@
+package org.pm.patientservice.service;
+
+import org.pm.patientservice.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Hard-deletes soft-deleted patients once their tombstones are older than
+ * the retention period. Rows go in small batches, each its own short
+ * transaction with a pause in between, so a large backlog never holds
+ * long locks or competes with request traffic for long stretches.
+ */
+@Component
+public class PatientPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientPurgeJob.class);
+
+    private final PatientRepository patientRepository;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration pause;
+    private final int maxBatchesPerRun;
+
+    public PatientPurgeJob(PatientRepository patientRepository,
+                           @Value("${patient.purge.retention:P7D}") Duration retention,
+                           @Value("${patient.purge.batch-size:500}") int batchSize,
+                           @Value("${patient.purge.pause:200ms}") Duration pause,
+                           @Value("${patient.purge.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this.patientRepository = patientRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${patient.purge.interval:PT10M}",
+            initialDelayString = "${patient.purge.interval:PT10M}")
+    public void run() {
+        int purged = purge(Instant.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} soft-deleted patients", purged);
+        }
+    }
+
+    /**
+     * Purges tombstones older than {@code cutoff}, stopping when a batch
+     * comes back short or after {@code maxBatchesPerRun} batches; the rest
+     * waits for the next run.
+     */
+    public int purge(Instant cutoff) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = patientRepository.purgeDeletedBefore(cutoff, batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+}
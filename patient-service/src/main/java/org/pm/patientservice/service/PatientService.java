@@ -2,6 +2,7 @@ package org.pm.patientservice.service;
 
 import org.pm.patientservice.dto.PatientRequestDTO;
 import org.pm.patientservice.dto.PatientResponseDTO;
+import org.pm.patientservice.dto.PatientSummaryDTO;
 import org.pm.patientservice.exception.EmailAlreadyExistsException;
 import org.pm.patientservice.exception.PatientNotFoundException;
 import org.pm.patientservice.grpc.BillingServiceGrpcClient;
@@ -9,14 +10,24 @@ import org.pm.patientservice.kafka.KafkaProducer;
 import org.pm.patientservice.mapper.PatientMapper;
 import org.pm.patientservice.model.Patient;
 import org.pm.patientservice.repository.PatientRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 public class PatientService {
+    private static final LocalDate EARLIEST_BIRTH_DATE = LocalDate.of(1800, 1, 1);
+    private static final LocalDate LATEST_BIRTH_DATE = LocalDate.of(9999, 12, 31);
+
     private final PatientRepository patientRepository;
 
     private final BillingServiceGrpcClient billingServiceGrpcClient;
@@ -27,21 +38,56 @@ public class PatientService {
         this.patientRepository = patientRepository;
         this.kafkaProducer = kafkaProducer;
     }
+    // Read paths query PatientSummaryDTO projections, so no entities are
+    // hydrated, snapshotted for dirty checking or held in the persistence
+    // context; readOnly also lets Hibernate skip flushing
+    @Transactional(readOnly = true)
     public List<PatientResponseDTO> getPatients() {
-        List<Patient> patients = patientRepository.findAll();
+        return patientRepository.findAllSummaries().stream().map(PatientMapper::toDTO).toList();
+    }
 
+    /**
+     * Finds patients by name prefix and/or date-of-birth range, capped at
+     * {@code limit} rows. A name prefix drives the name index with the birth
+     * range as a filter; without one the birth range index is used.
+     */
+    @Transactional(readOnly = true)
+    public List<PatientResponseDTO> searchPatients(String namePrefix, LocalDate bornFrom,
+                                                   LocalDate bornTo, int limit) {
+        LocalDate from = bornFrom != null ? bornFrom : EARLIEST_BIRTH_DATE;
+        LocalDate to = bornTo != null ? bornTo : LATEST_BIRTH_DATE;
+
+        List<PatientSummaryDTO> patients = namePrefix != null && !namePrefix.isBlank()
+                ? patientRepository.searchByName(likePrefix(namePrefix), from, to, Limit.of(limit))
+                : patientRepository.searchByDateOfBirth(from, to, Limit.of(limit));
         return patients.stream().map(PatientMapper::toDTO).toList();
     }
 
-    public PatientResponseDTO createPatient(PatientRequestDTO patientRequestDTO) {
-        if (patientRepository.existsByEmail(patientRequestDTO.getEmail())) {
-            throw new EmailAlreadyExistsException(
-                    "A patient with this email " + "already exists"
-                            + patientRequestDTO.getEmail());
+    /**
+     * Writes every patient as CSV, one row at a time from a streamed query,
+     * so memory use does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void exportPatients(Writer writer) throws IOException {
+        writer.write(PatientMapper.CSV_HEADER);
+        try (Stream<PatientSummaryDTO> patients = patientRepository.streamAllSummaries()) {
+            for (PatientSummaryDTO patient : (Iterable<PatientSummaryDTO>) patients::iterator) {
+                writer.write(PatientMapper.toCsvRow(patient));
+            }
         }
+        writer.flush();
+    }
 
-        Patient newPatient = patientRepository.save(
-                PatientMapper.toModel(patientRequestDTO));
+    public PatientResponseDTO createPatient(PatientRequestDTO patientRequestDTO) {
+        Patient newPatient;
+        try {
+            // Flush so a taken email fails here on the unique constraint
+            // instead of racing a separate existence check
+            newPatient = patientRepository.saveAndFlush(
+                    PatientMapper.toModel(patientRequestDTO));
+        } catch (DataIntegrityViolationException e) {
+            throw emailAlreadyExists(patientRequestDTO.getEmail());
+        }
 
         billingServiceGrpcClient.createBillingAccount(newPatient.getId().toString(),
                 newPatient.getName(), newPatient.getEmail());
@@ -53,27 +99,48 @@ public class PatientService {
 
     public PatientResponseDTO updatePatient(UUID id,
                                             PatientRequestDTO patientRequestDTO) {
+        LocalDate dateOfBirth = LocalDate.parse(patientRequestDTO.getDateOfBirth());
+
+        int updated;
+        try {
+            updated = patientRepository.updateDetails(id, patientRequestDTO.getName(),
+                    patientRequestDTO.getEmail(), patientRequestDTO.getAddress(), dateOfBirth);
+        } catch (DataIntegrityViolationException e) {
+            throw emailAlreadyExists(patientRequestDTO.getEmail());
+        }
+        if (updated == 0) {
+            throw new PatientNotFoundException("Patient not found with ID: " + id);
+        }
 
-        Patient patient = patientRepository.findById(id).orElseThrow(
-                () -> new PatientNotFoundException("Patient not found with ID: " + id));
+        // Every field of the response came from the request, so there is
+        // nothing to read back
+        PatientResponseDTO patientResponseDTO = new PatientResponseDTO();
+        patientResponseDTO.setId(id.toString());
+        patientResponseDTO.setName(patientRequestDTO.getName());
+        patientResponseDTO.setAddress(patientRequestDTO.getAddress());
+        patientResponseDTO.setEmail(patientRequestDTO.getEmail());
+        patientResponseDTO.setDateOfBirth(dateOfBirth.toString());
+        return patientResponseDTO;
+    }
 
-        if (patientRepository.existsByEmailAndIdNot(patientRequestDTO.getEmail(),
-                id)) {
-            throw new EmailAlreadyExistsException(
-                    "A patient with this email " + "already exists"
-                            + patientRequestDTO.getEmail());
+    /**
+     * Soft-deletes the patient in a single UPDATE and announces it; the row
+     * itself is removed later by {@link PatientPurgeJob}. Deleting a missing
+     * or already deleted patient is a no-op.
+     */
+    public void deletePatient(UUID id) {
+        if (patientRepository.softDelete(id, Instant.now()) == 1) {
+            kafkaProducer.sendDeletedEvent(id);
         }
+    }
 
-        patient.setName(patientRequestDTO.getName());
-        patient.setAddress(patientRequestDTO.getAddress());
-        patient.setEmail(patientRequestDTO.getEmail());
-        patient.setDateOfBirth(LocalDate.parse(patientRequestDTO.getDateOfBirth()));
-
-        Patient updatedPatient = patientRepository.save(patient);
-        return PatientMapper.toDTO(updatedPatient);
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
     }
 
-    public void deletePatient(UUID id) {
-        patientRepository.deleteById(id);
+    // The email unique key is the only constraint a validated request can break
+    private static EmailAlreadyExistsException emailAlreadyExists(String email) {
+        return new EmailAlreadyExistsException(
+                "A patient with this email " + "already exists" + email);
     }
 }
@@ -0,0 +1,13 @@
+-- IF NOT EXISTS adopts databases whose table was created by Hibernate
+-- before the schema moved to migrations
+CREATE SCHEMA IF NOT EXISTS patient;
+
+CREATE TABLE IF NOT EXISTS patient.patient
+(
+    id              UUID PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL,
+    email           VARCHAR(255) NOT NULL UNIQUE,
+    address         VARCHAR(255) NOT NULL,
+    date_of_birth   DATE         NOT NULL,
+    registered_date DATE         NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Soft delete tombstone: set on delete, row removed later by the purge job
+ALTER TABLE patient.patient ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP(6) WITH TIME ZONE;
@@ -0,0 +1,7 @@
+-- Same indexes as the PostgreSQL migration; H2 has no operator classes and
+-- no concurrent builds
+CREATE INDEX IF NOT EXISTS patient.idx_patient_registered_date ON patient.patient (registered_date DESC, id);
+
+CREATE INDEX IF NOT EXISTS patient.idx_patient_date_of_birth ON patient.patient (date_of_birth);
+
+CREATE INDEX IF NOT EXISTS patient.idx_patient_name ON patient.patient (name);
@@ -0,0 +1,2 @@
+-- H2 has no partial indexes; live rows are indexed under NULL
+CREATE INDEX IF NOT EXISTS patient.idx_patient_deleted_at ON patient.patient (deleted_at);
@@ -0,0 +1,14 @@
+-- Emails are unique among live patients only, so a soft-deleted patient's
+-- email can be registered again before the purge job removes the row.
+-- H2 has no partial indexes and generates the name of V1's constraint, so
+-- the column is rebuilt without it, and uniqueness moves to a generated
+-- column that is NULL for tombstones (a unique index allows many NULLs).
+ALTER TABLE patient.patient ADD COLUMN email_rebuilt VARCHAR(255);
+UPDATE patient.patient SET email_rebuilt = email;
+ALTER TABLE patient.patient DROP COLUMN email;
+ALTER TABLE patient.patient ALTER COLUMN email_rebuilt RENAME TO email;
+ALTER TABLE patient.patient ALTER COLUMN email SET NOT NULL;
+
+ALTER TABLE patient.patient ADD COLUMN live_email VARCHAR(255)
+    GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN email END);
+CREATE UNIQUE INDEX IF NOT EXISTS patient.uk_patient_live_email ON patient.patient (live_email);
@@ -0,0 +1,15 @@
+-- Built concurrently so adopting this on an existing, populated table does
+-- not block writes. Flyway runs the script outside a transaction.
+
+-- Newest registrations first, with id as a stable tie-breaker for paging
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_registered_date
+    ON patient.patient (registered_date DESC, id);
+
+-- Date-of-birth range filters
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_date_of_birth
+    ON patient.patient (date_of_birth);
+
+-- Name prefix lookups (name LIKE 'abc%'); the pattern opclass lets a
+-- non-C collation database use the index for LIKE
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_name
+    ON patient.patient (name varchar_pattern_ops);
@@ -0,0 +1,4 @@
+-- Only tombstones are indexed, so live rows pay nothing for it; the purge
+-- job walks this index oldest first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_deleted_at
+    ON patient.patient (deleted_at) WHERE deleted_at IS NOT NULL;
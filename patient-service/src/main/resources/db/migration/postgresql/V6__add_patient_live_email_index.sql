@@ -0,0 +1,6 @@
+-- Emails are unique among live patients only, so a soft-deleted patient's
+-- email can be registered again before the purge job removes the row.
+-- Built concurrently ahead of dropping the table-wide constraint in V7, so
+-- uniqueness is enforced throughout and writes are not blocked.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_patient_live_email
+    ON patient.patient (email) WHERE deleted_at IS NULL;
@@ -0,0 +1,19 @@
+-- The table-wide email constraint is named patient_email_key when V1
+-- created the table, or by Hibernate on adopted tables, so look it up
+DO $$
+DECLARE
+    constraint_name text;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+                 JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'patient.patient'::regclass
+          AND c.contype = 'u'
+          AND cardinality(c.conkey) = 1
+          AND a.attname = 'email'
+    LOOP
+        EXECUTE format('ALTER TABLE patient.patient DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END
+$$;
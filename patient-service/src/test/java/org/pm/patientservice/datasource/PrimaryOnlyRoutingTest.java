@@ -0,0 +1,65 @@
+package org.pm.patientservice.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.pm.patientservice.config.ReadReplicaDataSourceConfig;
+import org.pm.patientservice.dto.PatientSummaryDTO;
+import org.pm.patientservice.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The routing beans are registered even without replicas, so that the
+ * property can enable them in an AOT-built image. Until it does, read-only
+ * transactions must keep using the primary.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary-only;DB_CLOSE_DELAY=-1",
+        "patient.datasource.replica-urls="})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReadReplicaDataSourceConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PrimaryOnlyRoutingTest {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void readOnlyTransactionsUseThePrimaryWithoutReplicas() {
+        jdbcTemplate.update("DELETE FROM patient.patient");
+        jdbcTemplate.update("INSERT INTO patient.patient (id, name, email, address, date_of_birth, registered_date)"
+                        + " VALUES (?, ?, ?, ?, ?, ?)", UUID.randomUUID(), "Routing Test", "primary@example.com",
+                "1 Main Street", Date.valueOf(LocalDate.of(1990, 1, 1)), Date.valueOf(LocalDate.of(2024, 1, 1)));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<String> emails = readOnly.execute(status -> patientRepository.findAllSummaries().stream()
+                .map(PatientSummaryDTO::getEmail)
+                .toList());
+
+        assertThat(replicaDataSource.hasReplicas()).isFalse();
+        assertThat(emails).containsExactly("primary@example.com");
+    }
+}
@@ -0,0 +1,114 @@
+package org.pm.patientservice.datasource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pm.patientservice.config.ReadReplicaDataSourceConfig;
+import org.pm.patientservice.dto.PatientSummaryDTO;
+import org.pm.patientservice.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and a replica. Rows
+ * are inserted into one side only, so the rows a query sees show which
+ * database served it.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=" + ReadReplicaRoutingTest.PRIMARY_URL,
+        "patient.datasource.replica-urls=" + ReadReplicaRoutingTest.REPLICA_URL})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReadReplicaDataSourceConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+    private static final String CALLER = "caller@example.com";
+
+    private static final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @BeforeAll
+    static void migrateReplica() {
+        // A real replica gets its schema through replication
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void resetData() {
+        primary.update("DELETE FROM patient.patient");
+        replica.update("DELETE FROM patient.patient");
+        insert(primary, "primary@example.com");
+        insert(replica, "replica@example.com");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(emails(readOnly())).containsExactly("replica@example.com");
+    }
+
+    @Test
+    void readWriteTransactionsGoToThePrimary() {
+        assertThat(emails(new TransactionTemplate(transactionManager))).containsExactly("primary@example.com");
+    }
+
+    @Test
+    void callerWithARecentWriteReadsFromThePrimary() {
+        readYourWrites.markWrite(CALLER);
+        ReadYourWrites.pinToPrimary(readYourWrites.wroteRecently(CALLER));
+        try {
+            assertThat(emails(readOnly())).containsExactly("primary@example.com");
+        } finally {
+            ReadYourWrites.clearPin();
+        }
+        assertThat(readYourWrites.wroteRecently("other@example.com")).isFalse();
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private List<String> emails(TransactionTemplate template) {
+        return template.execute(status -> patientRepository.findAllSummaries().stream()
+                .map(PatientSummaryDTO::getEmail)
+                .toList());
+    }
+
+    private static void insert(JdbcTemplate database, String email) {
+        database.update("INSERT INTO patient.patient (id, name, email, address, date_of_birth, registered_date)"
+                        + " VALUES (?, ?, ?, ?, ?, ?)", UUID.randomUUID(), "Routing Test", email, "1 Main Street",
+                Date.valueOf(LocalDate.of(1990, 1, 1)), Date.valueOf(LocalDate.of(2024, 1, 1)));
+    }
+}
@@ -0,0 +1,53 @@
+package org.pm.patientservice.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofMinutes(1));
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(readYourWrites);
+
+    @Test
+    void readAfterAWriteIsPinnedForTheSameSubjectWhateverItsToken() throws Exception {
+        filter.doFilter(request("POST", "jane@example.com", "Bearer first-token"),
+                new MockHttpServletResponse(), (request, response) -> { });
+
+        assertThat(pinnedDuring(request("GET", "jane@example.com", "Bearer refreshed-token"))).isTrue();
+        assertThat(pinnedDuring(request("GET", "john@example.com", "Bearer first-token"))).isFalse();
+        assertThat(readYourWrites.wroteRecently("Bearer first-token")).isFalse();
+    }
+
+    @Test
+    void requestsWithoutAVerifiedSubjectAreNotTracked() throws Exception {
+        filter.doFilter(request("POST", null, "Bearer unverified"),
+                new MockHttpServletResponse(), (request, response) -> { });
+
+        assertThat(pinnedDuring(request("GET", null, "Bearer unverified"))).isFalse();
+        assertThat(readYourWrites.wroteRecently("Bearer unverified")).isFalse();
+    }
+
+    private boolean pinnedDuring(MockHttpServletRequest request) throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> pinned.set(ReadYourWrites.isPinnedToPrimary()));
+        assertThat(ReadYourWrites.isPinnedToPrimary()).isFalse();
+        return pinned.get();
+    }
+
+    private static MockHttpServletRequest request(String method, String subject, String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/patients");
+        request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        if (subject != null) {
+            request.addHeader(ReadYourWritesFilter.SUBJECT_HEADER, subject);
+        }
+        return request;
+    }
+}
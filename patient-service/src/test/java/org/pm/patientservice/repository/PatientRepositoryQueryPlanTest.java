@@ -0,0 +1,114 @@
+package org.pm.patientservice.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pm.patientservice.dto.PatientSummaryDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs each repository query against a populated table on the migrated
+ * schema and fails if the plan falls back to a full table scan. Plans are
+ * taken with the parameters bound, since H2 only turns a LIKE prefix into
+ * an index range once it knows the pattern.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.pm.patientservice.repository.PatientRepositoryQueryPlanTest$RecordingInspector")
+class PatientRepositoryQueryPlanTest {
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void populate() {
+        List<Object[]> rows = IntStream.range(0, ROWS)
+                .mapToObj(i -> new Object[]{UUID.randomUUID(), "Patient " + i, "patient" + i + "@example.com",
+                        i + " Main Street", Date.valueOf(LocalDate.of(1940, 1, 1).plusDays(i * 5L)),
+                        Date.valueOf(LocalDate.of(2020, 1, 1).plusDays(i % 1_500))})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO patient.patient "
+                + "(id, name, email, address, date_of_birth, registered_date) VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    void updateLocatesThePatientByPrimaryKey() {
+        UUID id = UUID.randomUUID();
+        LocalDate dateOfBirth = LocalDate.of(1990, 1, 1);
+        assertUsesIndex(() -> patientRepository.updateDetails(id, "Name", "name@example.com", "Address", dateOfBirth),
+                "Name", "name@example.com", "Address", Date.valueOf(dateOfBirth), id);
+    }
+
+    @Test
+    void listAndExportReadInRegisteredDateOrderFromItsIndex() {
+        assertUsesIndex(() -> patientRepository.findAllSummaries());
+        assertUsesIndex(() -> {
+            try (Stream<PatientSummaryDTO> patients = patientRepository.streamAllSummaries()) {
+                patients.findFirst();
+            }
+        });
+    }
+
+    @Test
+    void dateOfBirthSearchUsesItsIndex() {
+        LocalDate from = LocalDate.of(1980, 1, 1);
+        LocalDate to = LocalDate.of(1980, 12, 31);
+        assertUsesIndex(() -> patientRepository.searchByDateOfBirth(from, to, Limit.of(100)),
+                Date.valueOf(from), Date.valueOf(to), 100);
+    }
+
+    @Test
+    void namePrefixSearchUsesTheNameIndex() {
+        LocalDate from = LocalDate.of(1800, 1, 1);
+        LocalDate to = LocalDate.of(9999, 12, 31);
+        assertUsesIndex(() -> patientRepository.searchByName("Patient 12%", from, to, Limit.of(100)),
+                "Patient 12%", Date.valueOf(from), Date.valueOf(to), 100);
+    }
+
+    @Test
+    void purgeFindsTombstonesThroughTheDeletedAtIndex() {
+        Instant cutoff = Instant.now();
+        assertUsesIndex(() -> patientRepository.purgeDeletedBefore(cutoff, 500),
+                Timestamp.from(cutoff), 500);
+    }
+
+    private void assertUsesIndex(Runnable query, Object... parameters) {
+        RecordingInspector.STATEMENTS.clear();
+        query.run();
+        assertThat(RecordingInspector.STATEMENTS).hasSize(1);
+
+        String sql = RecordingInspector.STATEMENTS.getFirst();
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+        assertThat(plan).as("plan for %s", sql).doesNotContain(".tableScan");
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
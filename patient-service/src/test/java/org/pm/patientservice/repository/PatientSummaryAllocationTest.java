@@ -0,0 +1,92 @@
+package org.pm.patientservice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pm.patientservice.dto.PatientResponseDTO;
+import org.pm.patientservice.mapper.PatientMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the bytes the calling thread allocates per listed patient when
+ * the list is read as entities and when it is read through the summary
+ * projection, both mapped to the response DTO in a read-only transaction
+ * as PatientService does. Both figures are in the assertion description,
+ * so a failure shows how far apart they were.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PatientSummaryAllocationTest {
+
+    private static final int ROWS = 1_000;
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 20;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void populate() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        jdbcTemplate.update("DELETE FROM patient.patient");
+        List<Object[]> rows = IntStream.range(0, ROWS)
+                .mapToObj(i -> new Object[]{UUID.randomUUID(), "Patient " + i, "patient" + i + "@example.com",
+                        i + " Main Street", Date.valueOf(LocalDate.of(1940, 1, 1).plusDays(i)),
+                        Date.valueOf(LocalDate.of(2020, 1, 1).plusDays(i % 1_500))})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO patient.patient "
+                + "(id, name, email, address, date_of_birth, registered_date) VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    void summaryProjectionAllocatesLessPerRowThanEntities() {
+        double entities = bytesPerRow(() -> patientRepository.findAll().stream().map(PatientMapper::toDTO).toList());
+        double summaries = bytesPerRow(() -> patientRepository.findAllSummaries().stream()
+                .map(PatientMapper::toDTO).toList());
+
+        assertThat(summaries)
+                .as("findAllSummaries() %.0f B/row vs findAll() + toDTO %.0f B/row", summaries, entities)
+                .isLessThan(entities);
+    }
+
+    private double bytesPerRow(Supplier<List<PatientResponseDTO>> list) {
+        for (int i = 0; i < WARMUP; i++) {
+            List<PatientResponseDTO> patients = readOnly.execute(status -> list.get());
+            assertThat(patients).hasSize(ROWS);
+        }
+        long thread = Thread.currentThread().threadId();
+        long before = THREADS.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ITERATIONS; i++) {
+            readOnly.execute(status -> list.get());
+        }
+        return (double) (THREADS.getThreadAllocatedBytes(thread) - before) / ITERATIONS / ROWS;
+    }
+}
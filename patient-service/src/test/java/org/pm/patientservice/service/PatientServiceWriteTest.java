@@ -0,0 +1,197 @@
+package org.pm.patientservice.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pm.patientservice.dto.PatientRequestDTO;
+import org.pm.patientservice.dto.PatientResponseDTO;
+import org.pm.patientservice.exception.EmailAlreadyExistsException;
+import org.pm.patientservice.exception.PatientNotFoundException;
+import org.pm.patientservice.grpc.BillingServiceGrpcClient;
+import org.pm.patientservice.kafka.KafkaProducer;
+import org.pm.patientservice.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Write paths run outside a test transaction, as they do behind the
+ * controller, and count the JDBC statements each call prepares.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(PatientService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PatientServiceWriteTest {
+
+    @MockitoBean
+    private BillingServiceGrpcClient billingServiceGrpcClient;
+
+    @MockitoBean
+    private KafkaProducer kafkaProducer;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void createIsASingleInsert() {
+        PatientResponseDTO created = patientService.createPatient(request(uniqueEmail()));
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void createWithTakenEmailIsRejected() {
+        String email = uniqueEmail();
+        patientService.createPatient(request(email));
+
+        assertThatThrownBy(() -> patientService.createPatient(request(email)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+    }
+
+    @Test
+    void updateIsASingleStatement() {
+        UUID id = UUID.fromString(patientService.createPatient(request(uniqueEmail())).getId());
+        statistics.clear();
+
+        PatientRequestDTO changes = request(uniqueEmail());
+        changes.setName("Renamed Patient");
+        PatientResponseDTO updated = patientService.updatePatient(id, changes);
+
+        assertThat(updated.getName()).isEqualTo("Renamed Patient");
+        assertThat(updated.getEmail()).isEqualTo(changes.getEmail());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updateToTakenEmailIsRejected() {
+        String taken = uniqueEmail();
+        patientService.createPatient(request(taken));
+        UUID id = UUID.fromString(patientService.createPatient(request(uniqueEmail())).getId());
+
+        assertThatThrownBy(() -> patientService.updatePatient(id, request(taken)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+    }
+
+    @Test
+    void updateOfUnknownPatientIsNotFound() {
+        assertThatThrownBy(() -> patientService.updatePatient(UUID.randomUUID(), request(uniqueEmail())))
+                .isInstanceOf(PatientNotFoundException.class);
+    }
+
+    @Test
+    void deleteIsASingleUpdateThatHidesThePatient() {
+        UUID id = UUID.fromString(patientService.createPatient(request(uniqueEmail())).getId());
+        statistics.clear();
+
+        patientService.deletePatient(id);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        verify(kafkaProducer).sendDeletedEvent(id);
+        assertThat(patientService.getPatients()).extracting(PatientResponseDTO::getId)
+                .doesNotContain(id.toString());
+    }
+
+    @Test
+    void updateOfDeletedPatientIsNotFound() {
+        UUID id = UUID.fromString(patientService.createPatient(request(uniqueEmail())).getId());
+        patientService.deletePatient(id);
+
+        assertThatThrownBy(() -> patientService.updatePatient(id, request(uniqueEmail())))
+                .isInstanceOf(PatientNotFoundException.class);
+    }
+
+    @Test
+    void deletedPatientCanBeCreatedAgain() {
+        String email = uniqueEmail();
+        UUID deleted = UUID.fromString(patientService.createPatient(request(email)).getId());
+        patientService.deletePatient(deleted);
+
+        PatientResponseDTO recreated = patientService.createPatient(request(email));
+
+        assertThat(recreated.getId()).isNotEqualTo(deleted.toString());
+        assertThatThrownBy(() -> patientService.createPatient(request(email)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+    }
+
+    @Test
+    void updateToADeletedPatientsEmailIsAllowed() {
+        String email = uniqueEmail();
+        patientService.deletePatient(UUID.fromString(patientService.createPatient(request(email)).getId()));
+        UUID id = UUID.fromString(patientService.createPatient(request(uniqueEmail())).getId());
+
+        assertThat(patientService.updatePatient(id, request(email)).getEmail()).isEqualTo(email);
+    }
+
+    @Test
+    void deletingTwiceAnnouncesOnce() {
+        UUID id = UUID.fromString(patientService.createPatient(request(uniqueEmail())).getId());
+
+        patientService.deletePatient(id);
+        patientService.deletePatient(id);
+
+        verify(kafkaProducer, times(1)).sendDeletedEvent(id);
+    }
+
+    @Test
+    void purgeRemovesTombstonesInBatches() {
+        List<UUID> ids = IntStream.range(0, 5)
+                .mapToObj(i -> UUID.fromString(patientService.createPatient(request(uniqueEmail())).getId()))
+                .toList();
+        ids.forEach(patientService::deletePatient);
+
+        PatientPurgeJob purgeJob = new PatientPurgeJob(patientRepository, Duration.ZERO, 2, Duration.ZERO, 100);
+        assertThat(purgeJob.purge(Instant.now().plusSeconds(1))).isGreaterThanOrEqualTo(ids.size());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patient.patient WHERE deleted_at IS NOT NULL",
+                Integer.class)).isZero();
+    }
+
+    private static String uniqueEmail() {
+        return UUID.randomUUID() + "@example.com";
+    }
+
+    private static PatientRequestDTO request(String email) {
+        PatientRequestDTO request = new PatientRequestDTO();
+        request.setName("Test Patient");
+        request.setEmail(email);
+        request.setAddress("1 Main Street");
+        request.setDateOfBirth("1990-01-01");
+        request.setRegisteredDate("2024-01-01");
+        return request;
+    }
+}
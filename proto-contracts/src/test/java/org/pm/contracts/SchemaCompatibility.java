@@ -0,0 +1,196 @@
+package org.pm.contracts;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.DescriptorProto.ReservedRange;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumValueDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.DescriptorProtos.MethodDescriptorProto;
+import com.google.protobuf.DescriptorProtos.ServiceDescriptorProto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lists the changes between two versions of the contracts that would break
+ * a service still built against the older one: removed messages, enums,
+ * fields, enum values or RPCs, field numbers given a wire-incompatible type
+ * or a new name, and changes to the generated Java package or class names.
+ * Removing a field or enum value is allowed when its number and name are
+ * reserved, so they cannot be reused with another meaning.
+ */
+final class SchemaCompatibility {
+
+    // Types that read each other's encoding, per the protobuf language guide
+    private static final List<Set<Type>> WIRE_COMPATIBLE = List.of(
+            Set.of(Type.TYPE_INT32, Type.TYPE_UINT32, Type.TYPE_INT64, Type.TYPE_UINT64, Type.TYPE_BOOL),
+            Set.of(Type.TYPE_SINT32, Type.TYPE_SINT64),
+            Set.of(Type.TYPE_STRING, Type.TYPE_BYTES),
+            Set.of(Type.TYPE_FIXED32, Type.TYPE_SFIXED32),
+            Set.of(Type.TYPE_FIXED64, Type.TYPE_SFIXED64));
+
+    private final List<String> problems = new ArrayList<>();
+
+    private SchemaCompatibility() {
+    }
+
+    static List<String> check(FileDescriptorSet locked, FileDescriptorSet current) {
+        SchemaCompatibility check = new SchemaCompatibility();
+        Map<String, FileDescriptorProto> currentFiles = byName(current.getFileList(), FileDescriptorProto::getName);
+        for (FileDescriptorProto lockedFile : locked.getFileList()) {
+            FileDescriptorProto currentFile = currentFiles.get(lockedFile.getName());
+            if (currentFile == null) {
+                check.problems.add(lockedFile.getName() + ": file removed");
+            } else {
+                check.compareFiles(lockedFile, currentFile);
+            }
+        }
+        return check.problems;
+    }
+
+    private void compareFiles(FileDescriptorProto locked, FileDescriptorProto current) {
+        String file = locked.getName();
+        if (!locked.getPackage().equals(current.getPackage())) {
+            problems.add(file + ": package changed from " + locked.getPackage() + " to " + current.getPackage());
+        }
+        if (!locked.getOptions().getJavaPackage().equals(current.getOptions().getJavaPackage())
+                || locked.getOptions().getJavaMultipleFiles() != current.getOptions().getJavaMultipleFiles()
+                || !locked.getOptions().getJavaOuterClassname().equals(current.getOptions().getJavaOuterClassname())) {
+            problems.add(file + ": Java options changed, so generated class names move");
+        }
+        compareMessages(locked.getPackage(), locked.getMessageTypeList(), current.getMessageTypeList());
+        compareEnums(locked.getPackage(), locked.getEnumTypeList(), current.getEnumTypeList());
+
+        Map<String, ServiceDescriptorProto> services = byName(current.getServiceList(), ServiceDescriptorProto::getName);
+        for (ServiceDescriptorProto lockedService : locked.getServiceList()) {
+            String name = locked.getPackage() + "." + lockedService.getName();
+            ServiceDescriptorProto currentService = services.get(lockedService.getName());
+            if (currentService == null) {
+                problems.add(name + ": service removed");
+            } else {
+                compareMethods(name, lockedService, currentService);
+            }
+        }
+    }
+
+    private void compareMessages(String scope, List<DescriptorProto> locked, List<DescriptorProto> current) {
+        Map<String, DescriptorProto> messages = byName(current, DescriptorProto::getName);
+        for (DescriptorProto lockedMessage : locked) {
+            String name = scope + "." + lockedMessage.getName();
+            DescriptorProto currentMessage = messages.get(lockedMessage.getName());
+            if (currentMessage == null) {
+                problems.add(name + ": message removed");
+                continue;
+            }
+            compareFields(name, lockedMessage, currentMessage);
+            compareMessages(name, lockedMessage.getNestedTypeList(), currentMessage.getNestedTypeList());
+            compareEnums(name, lockedMessage.getEnumTypeList(), currentMessage.getEnumTypeList());
+        }
+    }
+
+    private void compareFields(String message, DescriptorProto locked, DescriptorProto current) {
+        Map<Integer, FieldDescriptorProto> fields = byName(current.getFieldList(), FieldDescriptorProto::getNumber);
+        for (FieldDescriptorProto lockedField : locked.getFieldList()) {
+            String name = message + "." + lockedField.getName() + " (" + lockedField.getNumber() + ")";
+            FieldDescriptorProto currentField = fields.get(lockedField.getNumber());
+            if (currentField == null) {
+                if (!isReserved(current.getReservedRangeList(), lockedField.getNumber())
+                        || !current.getReservedNameList().contains(lockedField.getName())) {
+                    problems.add(name + ": field removed without reserving its number and name");
+                }
+                continue;
+            }
+            if (!currentField.getName().equals(lockedField.getName())) {
+                problems.add(name + ": renamed to " + currentField.getName());
+            }
+            if ((lockedField.getLabel() == Label.LABEL_REPEATED) != (currentField.getLabel() == Label.LABEL_REPEATED)) {
+                problems.add(name + ": changed between repeated and singular");
+            }
+            if (!wireCompatible(lockedField, currentField)) {
+                problems.add(name + ": type changed from " + typeName(lockedField) + " to " + typeName(currentField));
+            }
+        }
+        for (FieldDescriptorProto currentField : current.getFieldList()) {
+            if (isReserved(locked.getReservedRangeList(), currentField.getNumber())) {
+                problems.add(message + "." + currentField.getName() + " (" + currentField.getNumber()
+                        + "): reuses a reserved number");
+            }
+        }
+    }
+
+    private void compareEnums(String scope, List<EnumDescriptorProto> locked, List<EnumDescriptorProto> current) {
+        Map<String, EnumDescriptorProto> enums = byName(current, EnumDescriptorProto::getName);
+        for (EnumDescriptorProto lockedEnum : locked) {
+            String name = scope + "." + lockedEnum.getName();
+            EnumDescriptorProto currentEnum = enums.get(lockedEnum.getName());
+            if (currentEnum == null) {
+                problems.add(name + ": enum removed");
+                continue;
+            }
+            Map<Integer, EnumValueDescriptorProto> values =
+                    byName(currentEnum.getValueList(), EnumValueDescriptorProto::getNumber);
+            for (EnumValueDescriptorProto lockedValue : lockedEnum.getValueList()) {
+                EnumValueDescriptorProto currentValue = values.get(lockedValue.getNumber());
+                String value = name + "." + lockedValue.getName() + " (" + lockedValue.getNumber() + ")";
+                if (currentValue == null) {
+                    boolean reserved = currentEnum.getReservedRangeList().stream().anyMatch(range ->
+                            range.getStart() <= lockedValue.getNumber() && lockedValue.getNumber() <= range.getEnd())
+                            && currentEnum.getReservedNameList().contains(lockedValue.getName());
+                    if (!reserved) {
+                        problems.add(value + ": value removed without reserving its number and name");
+                    }
+                } else if (!currentValue.getName().equals(lockedValue.getName())) {
+                    problems.add(value + ": renamed to " + currentValue.getName());
+                }
+            }
+        }
+    }
+
+    private void compareMethods(String service, ServiceDescriptorProto locked, ServiceDescriptorProto current) {
+        Map<String, MethodDescriptorProto> methods = byName(current.getMethodList(), MethodDescriptorProto::getName);
+        for (MethodDescriptorProto lockedMethod : locked.getMethodList()) {
+            String name = service + "/" + lockedMethod.getName();
+            MethodDescriptorProto currentMethod = methods.get(lockedMethod.getName());
+            if (currentMethod == null) {
+                problems.add(name + ": rpc removed");
+            } else if (!lockedMethod.getInputType().equals(currentMethod.getInputType())
+                    || !lockedMethod.getOutputType().equals(currentMethod.getOutputType())
+                    || lockedMethod.getClientStreaming() != currentMethod.getClientStreaming()
+                    || lockedMethod.getServerStreaming() != currentMethod.getServerStreaming()) {
+                problems.add(name + ": request, response or streaming changed");
+            }
+        }
+    }
+
+    // Message and enum fields must keep their type; scalars may move within
+    // a wire-compatible group
+    private static boolean wireCompatible(FieldDescriptorProto locked, FieldDescriptorProto current) {
+        if (locked.getType() == current.getType()) {
+            return !locked.hasTypeName() || locked.getTypeName().equals(current.getTypeName());
+        }
+        return WIRE_COMPATIBLE.stream()
+                .anyMatch(group -> group.contains(locked.getType()) && group.contains(current.getType()));
+    }
+
+    private static String typeName(FieldDescriptorProto field) {
+        return field.hasTypeName() ? field.getTypeName() : field.getType().name();
+    }
+
+    // Message reserved ranges exclude their end
+    private static boolean isReserved(List<ReservedRange> ranges, int number) {
+        return ranges.stream().anyMatch(range -> range.getStart() <= number && number < range.getEnd());
+    }
+
+    private static <K, T> Map<K, T> byName(List<T> items, Function<T, K> key) {
+        return items.stream().collect(Collectors.toMap(key, Function.identity(), (a, b) -> a, HashMap::new));
+    }
+}
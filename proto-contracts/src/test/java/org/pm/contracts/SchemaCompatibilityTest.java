@@ -0,0 +1,126 @@
+package org.pm.contracts;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumValueDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import com.google.protobuf.TextFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails the build when the schemas stop being readable by services built
+ * against schema.lock. After an intended change has shipped everywhere,
+ * refresh the lock with {@code mvn test -Dschema.lock.update=true} and
+ * commit it with the change.
+ */
+class SchemaCompatibilityTest {
+
+    private static final Path LOCK = Path.of("schema.lock");
+
+    @Test
+    void schemasStayCompatibleWithTheLock() throws IOException {
+        FileDescriptorSet current = compiledSchemas();
+        if (Boolean.getBoolean("schema.lock.update")) {
+            Files.writeString(LOCK, TextFormat.printer().printToString(current));
+            return;
+        }
+        FileDescriptorSet.Builder locked = FileDescriptorSet.newBuilder();
+        TextFormat.merge(Files.readString(LOCK), locked);
+
+        assertThat(SchemaCompatibility.check(locked.build(), current)).isEmpty();
+    }
+
+    @Test
+    void addingFieldsAndValuesIsCompatible() {
+        FileDescriptorSet changed = schema(event()
+                .addField(field("patient_key", 3, Type.TYPE_BYTES)), status()
+                .addValue(value("ARCHIVED", 2)));
+
+        assertThat(SchemaCompatibility.check(schema(event(), status()), changed)).isEmpty();
+    }
+
+    @Test
+    void wireCompatibleTypeChangeIsAllowed() {
+        FileDescriptorSet locked = schema(event().addField(field("count", 3, Type.TYPE_INT32)), status());
+        FileDescriptorSet changed = schema(event().addField(field("count", 3, Type.TYPE_INT64)), status());
+
+        assertThat(SchemaCompatibility.check(locked, changed)).isEmpty();
+    }
+
+    @Test
+    void rejectsRetypedField() {
+        FileDescriptorSet changed = schema(DescriptorProto.newBuilder().setName("Event")
+                .addField(field("patient_id", 1, Type.TYPE_STRING))
+                .addField(field("event_type", 2, Type.TYPE_INT32)), status());
+
+        assertThat(SchemaCompatibility.check(schema(event(), status()), changed))
+                .containsExactly("test.Event.event_type (2): type changed from TYPE_STRING to TYPE_INT32");
+    }
+
+    @Test
+    void removalNeedsReservation() {
+        DescriptorProto.Builder withoutType = DescriptorProto.newBuilder().setName("Event")
+                .addField(field("patient_id", 1, Type.TYPE_STRING));
+        FileDescriptorSet locked = schema(event(), status());
+
+        assertThat(SchemaCompatibility.check(locked, schema(withoutType.clone(), status())))
+                .containsExactly("test.Event.event_type (2): field removed without reserving its number and name");
+        assertThat(SchemaCompatibility.check(locked, schema(withoutType
+                .addReservedRange(DescriptorProto.ReservedRange.newBuilder().setStart(2).setEnd(3))
+                .addReservedName("event_type"), status()))).isEmpty();
+    }
+
+    @Test
+    void rejectsRemovedEnumValue() {
+        FileDescriptorSet changed = schema(event(), EnumDescriptorProto.newBuilder().setName("Status")
+                .addValue(value("STATUS_UNSPECIFIED", 0)));
+
+        assertThat(SchemaCompatibility.check(schema(event(), status()), changed))
+                .containsExactly("test.Status.ACTIVE (1): value removed without reserving its number and name");
+    }
+
+    // The generated descriptor set the build bundles into the jar
+    private static FileDescriptorSet compiledSchemas() throws IOException {
+        try (InputStream in = SchemaCompatibilityTest.class.getResourceAsStream("/proto-contracts.desc")) {
+            assertThat(in).as("proto-contracts.desc on the classpath").isNotNull();
+            return FileDescriptorSet.parseFrom(in);
+        }
+    }
+
+    private static FileDescriptorSet schema(DescriptorProto.Builder message, EnumDescriptorProto.Builder enumType) {
+        return FileDescriptorSet.newBuilder().addFile(FileDescriptorProto.newBuilder()
+                .setName("test.proto").setPackage("test").setSyntax("proto3")
+                .addMessageType(message).addEnumType(enumType)).build();
+    }
+
+    private static DescriptorProto.Builder event() {
+        return DescriptorProto.newBuilder().setName("Event")
+                .addField(field("patient_id", 1, Type.TYPE_STRING))
+                .addField(field("event_type", 2, Type.TYPE_STRING));
+    }
+
+    private static EnumDescriptorProto.Builder status() {
+        return EnumDescriptorProto.newBuilder().setName("Status")
+                .addValue(value("STATUS_UNSPECIFIED", 0))
+                .addValue(value("ACTIVE", 1));
+    }
+
+    private static FieldDescriptorProto field(String name, int number, Type type) {
+        return FieldDescriptorProto.newBuilder().setName(name).setNumber(number).setType(type)
+                .setLabel(FieldDescriptorProto.Label.LABEL_OPTIONAL).build();
+    }
+
+    private static EnumValueDescriptorProto value(String name, int number) {
+        return EnumValueDescriptorProto.newBuilder().setName(name).setNumber(number).build();
+    }
+}
@@ -0,0 +1,19 @@
+#!/bin/sh
+#
+# Image build step shared by the service Dockerfiles: unpacks app.jar into
+# extracted/ and records a class data sharing archive, extracted/app.jsa,
+# with a training run on the image's own JVM. The run uses the AOT bean
+# definitions and exits once the context has refreshed, before the server
+# and listeners start. Arguments go to the training run only, for settings
+# a service needs to get that far.
+#
+#   sh cds-archive.sh [-Dname=value...]
+#
+# The images start with JAVA_OPTS="-XX:SharedArchiveFile=extracted/app.jsa
+# -Dspring.aot.enabled=true"; set JAVA_OPTS to "" to start without either.
+#
+set -eu
+
+java -Djarmode=tools -jar app.jar extract --destination extracted
+java -XX:ArchiveClassesAtExit=extracted/app.jsa -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh "$@" -jar extracted/app.jar
@@ -0,0 +1,116 @@
+#!/usr/bin/env bash
+#
+# Startup report for one service: builds it with AOT processing, trains
+# class data sharing (CDS) archives, then starts it RUNS times in each mode
+# and prints a Markdown table of the median "Started ... in" time and the
+# median time from launching the JVM to the first successful request.
+#
+#   scripts/startup-report.sh <service> [app args...]
+#
+# App args are passed to every run, training included, e.g. a datasource
+# URL. Environment:
+#   RUNS=5          runs per mode
+#   CPUS=0          pin to these CPUs (taskset list) to approximate a small
+#                   Fargate task; the JVM is told it has that many
+#   SKIP_BUILD=1    reuse target/<service>-0.0.1-SNAPSHOT.jar
+#   JAVA=java       JVM to use; must match the one that trained the archives
+#
+set -euo pipefail
+
+SERVICE=${1:?usage: scripts/startup-report.sh <service> [app args...]}
+shift
+APP_ARGS=("$@")
+
+case "$SERVICE" in
+  auth-service)      PORT=4005; CHECK=/actuator/health ;;
+  patient-service)   PORT=4000; CHECK=/actuator/health ;;
+  billing-service)   PORT=4001; CHECK=/payments/health ;;
+  analytics-service) PORT=4002; CHECK=/analytics/health ;;
+  api-gateway)       PORT=4004; CHECK=/actuator/health ;;
+  *) echo "unknown service: $SERVICE" >&2; exit 2 ;;
+esac
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+TARGET="$ROOT/$SERVICE/target"
+JAR="$TARGET/$SERVICE-0.0.1-SNAPSHOT.jar"
+WORK="$TARGET/startup"
+RUNS=${RUNS:-5}
+JAVA=${JAVA:-java}
+
+LAUNCH=()
+JVM_OPTS=()
+if [[ -n "${CPUS:-}" ]]; then
+  LAUNCH=(taskset -c "$CPUS")
+  count=$(taskset -c "$CPUS" nproc)
+  JVM_OPTS=(-XX:ActiveProcessorCount="$count")
+fi
+
+if [[ -z "${SKIP_BUILD:-}" ]]; then
+  mvn -B -q -f "$ROOT/$SERVICE/pom.xml" -Pnative -DskipTests clean package
+fi
+
+rm -rf "$WORK"
+mkdir -p "$WORK"
+"$JAVA" -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" >/dev/null
+APP="$WORK/app/$(basename "$JAR")"
+
+# Training runs stop once the context has refreshed, before the web server,
+# listeners and schedulers start
+train() {
+  local archive=$1; shift
+  "${LAUNCH[@]}" "$JAVA" "${JVM_OPTS[@]}" -XX:ArchiveClassesAtExit="$archive" -Dspring.context.exit=onRefresh \
+      "$@" -jar "$APP" "${APP_ARGS[@]}" >"$archive.log" 2>&1 \
+      || { echo "$SERVICE training run failed; see $archive.log" >&2; exit 1; }
+}
+train "$WORK/jit.jsa"
+train "$WORK/aot.jsa" -Dspring.aot.enabled=true
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+# Prints "<started-in seconds> <first-request seconds>" for one run
+run_once() {
+  local log="$WORK/run.log" start pid code="000"
+  start=$(date +%s%N)
+  "${LAUNCH[@]}" "$JAVA" "${JVM_OPTS[@]}" "$@" "${APP_ARGS[@]}" >"$log" 2>&1 &
+  pid=$!
+  until [[ "$code" == 200 ]]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "$SERVICE exited during startup; see $log" >&2
+      exit 1
+    fi
+    if (( $(date +%s%N) - start > 300000000000 )); then
+      kill "$pid"
+      echo "$SERVICE did not answer $CHECK within 300s; see $log" >&2
+      exit 1
+    fi
+    sleep 0.05
+    code=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT$CHECK" || true)
+  done
+  local first=$(( $(date +%s%N) - start ))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  local started
+  started=$(grep -oE 'Started [A-Za-z]+ in [0-9.]+ seconds' "$log" | grep -oE '[0-9.]+ seconds' | cut -d' ' -f1)
+  echo "$started $(awk -v ns="$first" 'BEGIN { printf "%.2f", ns / 1e9 }')"
+}
+
+measure() {
+  local name=$1; shift
+  local results
+  results=$(for _ in $(seq "$RUNS"); do run_once "$@"; done)
+  printf '| %s | %s | %s |\n' "$name" \
+      "$(cut -d' ' -f1 <<<"$results" | median)" \
+      "$(cut -d' ' -f2 <<<"$results" | median)"
+}
+
+echo
+echo "### $SERVICE ($("$JAVA" -version 2>&1 | head -1), ${RUNS} runs, CPUs: ${CPUS:-all})"
+echo
+echo "| Mode | Started in (s) | First request (s) |"
+echo "|---|---|---|"
+measure "fat jar" -jar "$JAR"
+measure "extracted" -jar "$APP"
+measure "extracted + CDS" -XX:SharedArchiveFile="$WORK/jit.jsa" -jar "$APP"
+measure "extracted + AOT + CDS" -XX:SharedArchiveFile="$WORK/aot.jsa" -Dspring.aot.enabled=true -jar "$APP"
@@ -0,0 +1,131 @@
+package org.pm.revocation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of revoked token ids (jti) consulted on every validation.
+ *
+ * A Bloom filter answers the common "not revoked" case without touching the
+ * exact set, which only has to resolve the rare filter hit. Entries are
+ * pruned once the token they revoke has expired, so memory stays bounded by
+ * the number of revocations within one token lifetime. Reads are lock-free;
+ * writes are rare and serialized so the filter never misses an entry.
+ */
+public class RevocationList {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final int minCapacity;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public RevocationList(int expectedEntries) {
+        this.minCapacity = Math.max(expectedEntries, 64);
+        this.filter = new BloomFilter(minCapacity);
+    }
+
+    public boolean isRevoked(String jti, long nowMillis) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > nowMillis;
+    }
+
+    public synchronized void add(String jti, long expiresAtMillis) {
+        revoked.put(jti, expiresAtMillis);
+        if (revoked.size() > filter.capacity) {
+            rebuild();
+        } else {
+            filter.put(jti);
+        }
+    }
+
+    /**
+     * Drops revocations whose tokens have expired and rebuilds the filter so
+     * stale bits do not accumulate.
+     */
+    public synchronized int prune(long nowMillis) {
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+        int removed = before - revoked.size();
+        if (removed > 0) {
+            rebuild();
+        }
+        return removed;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    boolean mightContain(String jti) {
+        return filter.mightContain(jti);
+    }
+
+    private void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(minCapacity, revoked.size() * 2));
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    static final class BloomFilter {
+        private final int capacity;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+
+        BloomFilter(int capacity) {
+            this.capacity = capacity;
+            long m = (long) Math.ceil(-capacity * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, m);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+        }
+
+        void put(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a over the UTF-16 chars; jti values are short random UUIDs
+        private static long hash(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return mix(h);
+        }
+
+        // SplitMix64 finalizer to spread the bits before double hashing
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
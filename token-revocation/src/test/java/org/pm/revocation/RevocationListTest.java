@@ -0,0 +1,79 @@
+package org.pm.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevocationListTest {
+
+    private static final long NOW = 1_000_000L;
+
+    // Seeded, so the measured false-positive rate is the same on every run
+    private final Random random = new Random(42);
+
+    @Test
+    void everyAddedIdIsRevokedEvenPastTheExpectedSize() {
+        RevocationList list = new RevocationList(1_000);
+        List<String> jtis = jtis(5_000);
+
+        jtis.forEach(jti -> list.add(jti, NOW + 60_000));
+
+        assertThat(jtis).allMatch(jti -> list.isRevoked(jti, NOW));
+        assertThat(list.size()).isEqualTo(5_000);
+    }
+
+    @Test
+    void filterStaysNearItsFalsePositiveRateWhenFull() {
+        RevocationList.BloomFilter filter = new RevocationList.BloomFilter(10_000);
+        jtis(10_000).forEach(filter::put);
+
+        long falsePositives = jtis(100_000).stream().filter(filter::mightContain).count();
+
+        // Sized for 1%; allow for the spread of a 100k sample
+        assertThat(falsePositives / 100_000.0).isLessThan(0.015);
+    }
+
+    @Test
+    void tokensAreNotRevokedOnceExpired() {
+        RevocationList list = new RevocationList(100);
+        list.add("short", NOW + 1_000);
+        list.add("long", NOW + 60_000);
+
+        assertThat(list.isRevoked("short", NOW + 1_000)).isFalse();
+        assertThat(list.isRevoked("long", NOW + 1_000)).isTrue();
+    }
+
+    @Test
+    void pruneDropsExpiredIdsFromTheFilter() {
+        RevocationList list = new RevocationList(100);
+        List<String> expired = jtis(50);
+        expired.forEach(jti -> list.add(jti, NOW));
+        list.add("live", NOW + 60_000);
+
+        assertThat(list.prune(NOW)).isEqualTo(50);
+
+        assertThat(list.size()).isEqualTo(1);
+        assertThat(expired).noneMatch(list::mightContain);
+        assertThat(list.isRevoked("live", NOW)).isTrue();
+    }
+
+    @Test
+    void unknownAndMissingIdsAreNotRevoked() {
+        RevocationList list = new RevocationList(100);
+        list.add("revoked", NOW + 60_000);
+
+        assertThat(list.isRevoked(null, NOW)).isFalse();
+        assertThat(list.isRevoked("other", NOW)).isFalse();
+    }
+
+    private List<String> jtis(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new UUID(random.nextLong(), random.nextLong()).toString())
+                .toList();
+    }
+}